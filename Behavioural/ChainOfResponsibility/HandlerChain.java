@@ -0,0 +1,163 @@
+package Behavioural.ChainOfResponsibility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Outcome of a handler: pass the order on, stop successfully, or reject it
+enum HandlerResult {
+    CONTINUE,
+    STOP,
+    REJECT
+}
+
+// Handler that decides whether the chain goes on
+interface ChainHandler {
+    HandlerResult handle(Order order);
+
+    // Existing handlers always pass the order on
+    static ChainHandler of(OrderHandler handler) {
+        return order -> {
+            handler.processOrder(order);
+            return HandlerResult.CONTINUE;
+        };
+    }
+}
+
+// Builder collecting the handlers in call order
+class HandlerChainBuilder {
+    private final List<String> names = new ArrayList<>();
+    private final List<ChainHandler> handlers = new ArrayList<>();
+
+    HandlerChainBuilder then(OrderHandler handler) {
+        return then(handler.getClass().getSimpleName(), ChainHandler.of(handler));
+    }
+
+    HandlerChainBuilder then(String name, ChainHandler handler) {
+        names.add(name);
+        handlers.add(handler);
+        return this;
+    }
+
+    HandlerChain build() {
+        if (handlers.isEmpty()) {
+            throw new IllegalStateException("Chain has no handlers");
+        }
+        // Link from the tail so each link holds a final reference to the one after it
+        HandlerChain.Link next = null;
+        List<HandlerMetrics> metrics = new ArrayList<>(handlers.size());
+        for (int i = handlers.size() - 1; i >= 0; i--) {
+            HandlerMetrics handlerMetrics = new HandlerMetrics(names.get(i));
+            next = new HandlerChain.Link(handlers.get(i), handlerMetrics, next);
+            metrics.add(0, handlerMetrics);
+        }
+        return new HandlerChain(next, metrics);
+    }
+}
+
+// Immutable linked chain; an order walks the links directly with no per-order lists or lookups
+class HandlerChain {
+    private final Link head;
+    private final List<HandlerMetrics> metrics;
+
+    HandlerChain(Link head, List<HandlerMetrics> metrics) {
+        this.head = head;
+        this.metrics = List.copyOf(metrics);
+    }
+
+    // Returns CONTINUE when every handler passed the order on
+    HandlerResult process(Order order) {
+        return head.handle(order);
+    }
+
+    // Live metrics, safe to read while the chain is running
+    List<HandlerMetrics> metrics() {
+        return metrics;
+    }
+
+    static final class Link {
+        private final ChainHandler handler;
+        private final HandlerMetrics metrics;
+        private final Link next;
+
+        Link(ChainHandler handler, HandlerMetrics metrics, Link next) {
+            this.handler = handler;
+            this.metrics = metrics;
+            this.next = next;
+        }
+
+        HandlerResult handle(Order order) {
+            long start = System.nanoTime();
+            HandlerResult result;
+            try {
+                result = handler.handle(order);
+            } catch (RuntimeException | Error e) {
+                metrics.record(null, System.nanoTime() - start);
+                throw e;
+            }
+            metrics.record(result, System.nanoTime() - start);
+            if (result != HandlerResult.CONTINUE || next == null) {
+                return result;
+            }
+            return next.handle(order);
+        }
+    }
+}
+
+// Counters and latency histogram of one handler
+class HandlerMetrics {
+    private final String name;
+    private final LongAdder continued = new LongAdder();
+    private final LongAdder stopped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    HandlerMetrics(String name) {
+        this.name = name;
+    }
+
+    void record(HandlerResult result, long nanos) {
+        latency.record(nanos);
+        if (result == null) {
+            failed.increment();
+        } else if (result == HandlerResult.CONTINUE) {
+            continued.increment();
+        } else if (result == HandlerResult.STOP) {
+            stopped.increment();
+        } else {
+            rejected.increment();
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    long getContinued() {
+        return continued.sum();
+    }
+
+    long getStopped() {
+        return stopped.sum();
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+
+    LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: continued=%d stopped=%d rejected=%d failed=%d p50=%dns p99=%dns max=%dns",
+                name, getContinued(), getStopped(), getRejected(), getFailed(),
+                latency.percentile(50), latency.percentile(99), latency.max());
+    }
+}
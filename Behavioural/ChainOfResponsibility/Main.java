@@ -1,5 +1,7 @@
 package Behavioural.ChainOfResponsibility;
 
+import java.util.List;
+
 // Handler interface
 interface OrderHandler {
     void processOrder(Order order);
@@ -46,5 +48,21 @@ public class Main {
         validationHandler.processOrder(order);
         discountHandler.processOrder(order);
         confirmationHandler.processOrder(order);
+
+        // Same chain run as a pipeline, each handler on its own stage
+        try (OrderPipeline pipeline = new OrderPipeline(
+                List.of(validationHandler, discountHandler, confirmationHandler))) {
+            pipeline.processOrders(List.of(new Order(), new Order())).join();
+            pipeline.stats().forEach(System.out::println);
+        }
+
+        // Linked chain that can stop early and measures each handler
+        HandlerChain chain = new HandlerChainBuilder()
+                .then(validationHandler)
+                .then(discountHandler)
+                .then(confirmationHandler)
+                .build();
+        System.out.println("Chain result: " + chain.process(new Order()));
+        chain.metrics().forEach(System.out::println);
     }
 }
\ No newline at end of file
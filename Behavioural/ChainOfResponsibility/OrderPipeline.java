@@ -0,0 +1,308 @@
+package Behavioural.ChainOfResponsibility;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Pipelined chain: every handler runs as a stage with its own bounded queue and workers.
+// Orders move between stages in batches; a full queue blocks the stage before it (backpressure).
+// Handlers may be called from several workers at once, so they must be thread-safe.
+class OrderPipeline implements AutoCloseable {
+    private static final long POLL_MILLIS = 10;
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final AtomicInteger submitting = new AtomicInteger();
+    private volatile boolean closed;
+
+    OrderPipeline(List<OrderHandler> handlers) {
+        this(handlers, 1024, 64, 1, Executors.defaultThreadFactory());
+    }
+
+    // On JDK 21+ pass Thread.ofVirtual().factory() to run the workers on virtual threads
+    OrderPipeline(List<OrderHandler> handlers, int queueCapacity, int batchSize,
+                  int workersPerStage, ThreadFactory threadFactory) {
+        if (handlers.isEmpty()) {
+            throw new IllegalArgumentException("At least one handler is required");
+        }
+        if (queueCapacity < 1 || batchSize < 1 || workersPerStage < 1) {
+            throw new IllegalArgumentException("Queue capacity, batch size and workers must be positive");
+        }
+        for (OrderHandler handler : handlers) {
+            stages.add(new Stage(handler, queueCapacity, batchSize));
+        }
+        for (int i = 0; i < stages.size(); i++) {
+            Stage next = i + 1 < stages.size() ? stages.get(i + 1) : null;
+            stages.get(i).start(next, workersPerStage, threadFactory);
+        }
+    }
+
+    // Blocks while the first stage is full
+    CompletableFuture<Order> submit(Order order) {
+        submitting.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Pipeline is closed");
+            }
+            Ticket ticket = new Ticket(order);
+            stages.get(0).put(List.of(ticket));
+            return ticket.future;
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    CompletableFuture<Void> processOrders(Iterable<Order> orders) {
+        List<CompletableFuture<Order>> futures = new ArrayList<>();
+        for (Order order : orders) {
+            futures.add(submit(order));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    List<StageStats> stats() {
+        List<StageStats> result = new ArrayList<>(stages.size());
+        for (Stage stage : stages) {
+            result.add(stage.stats());
+        }
+        return result;
+    }
+
+    // Stops accepting orders, lets everything already submitted run to completion
+    public void close() {
+        closed = true;
+        while (submitting.get() > 0) {
+            Thread.onSpinWait();
+        }
+        // Stages are drained front to back so no stage receives work after it stopped
+        for (Stage stage : stages) {
+            stage.drainAndStop();
+        }
+    }
+
+    // Order travelling through the pipeline together with its completion future
+    private static class Ticket {
+        final Order order;
+        final CompletableFuture<Order> future = new CompletableFuture<>();
+
+        Ticket(Order order) {
+            this.order = order;
+        }
+    }
+
+    // Bounded FIFO of tickets that is filled and drained a batch at a time, one lock acquisition per
+    // batch in the common case
+    private static class BatchQueue {
+        private final ArrayDeque<Ticket> tickets;
+        private final int capacity;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+
+        BatchQueue(int capacity) {
+            this.tickets = new ArrayDeque<>(capacity);
+            this.capacity = capacity;
+        }
+
+        // Blocks while the queue is full; a batch larger than the free space goes in as room appears
+        void putAll(List<Ticket> batch) throws InterruptedException {
+            int added = 0;
+            lock.lock();
+            try {
+                while (added < batch.size()) {
+                    while (tickets.size() == capacity) {
+                        notFull.await();
+                    }
+                    while (added < batch.size() && tickets.size() < capacity) {
+                        tickets.addLast(batch.get(added++));
+                    }
+                    notEmpty.signalAll();
+                }
+            } catch (InterruptedException e) {
+                for (int i = added; i < batch.size(); i++) {
+                    batch.get(i).future.completeExceptionally(e);
+                }
+                throw e;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Moves up to max tickets into batch, waiting up to the timeout for the first
+        int drainTo(List<Ticket> batch, int max, long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lock();
+            try {
+                while (tickets.isEmpty()) {
+                    if (nanos <= 0) {
+                        return 0;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                int count = Math.min(max, tickets.size());
+                for (int i = 0; i < count; i++) {
+                    batch.add(tickets.pollFirst());
+                }
+                notFull.signalAll();
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return tickets.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static class Stage {
+        private final OrderHandler handler;
+        private final BatchQueue queue;
+        private final int batchSize;
+        private final List<Thread> workers = new ArrayList<>();
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final long startNanos = System.nanoTime();
+        private volatile boolean draining;
+
+        Stage(OrderHandler handler, int queueCapacity, int batchSize) {
+            this.handler = handler;
+            this.queue = new BatchQueue(queueCapacity);
+            this.batchSize = batchSize;
+        }
+
+        void start(Stage next, int workerCount, ThreadFactory threadFactory) {
+            for (int i = 0; i < workerCount; i++) {
+                Thread worker = threadFactory.newThread(() -> run(next));
+                workers.add(worker);
+                worker.start();
+            }
+        }
+
+        void put(List<Ticket> batch) {
+            try {
+                queue.putAll(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void run(Stage next) {
+            List<Ticket> batch = new ArrayList<>(batchSize);
+            List<Ticket> passed = new ArrayList<>(batchSize);
+            try {
+                while (true) {
+                    if (queue.drainTo(batch, batchSize, POLL_MILLIS, TimeUnit.MILLISECONDS) == 0) {
+                        if (draining) {
+                            return;
+                        }
+                        continue;
+                    }
+                    for (Ticket ticket : batch) {
+                        if (handle(ticket)) {
+                            passed.add(ticket);
+                        }
+                    }
+                    if (next == null) {
+                        for (Ticket ticket : passed) {
+                            ticket.future.complete(ticket.order);
+                        }
+                    } else if (!passed.isEmpty()) {
+                        next.put(passed);
+                    }
+                    processed.add(batch.size());
+                    batches.increment();
+                    batch.clear();
+                    passed.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Runs the handler; a failure, Errors included, completes the ticket and drops it from the batch
+        private boolean handle(Ticket ticket) {
+            try {
+                handler.processOrder(ticket.order);
+                return true;
+            } catch (RuntimeException | Error e) {
+                ticket.future.completeExceptionally(e);
+                return false;
+            }
+        }
+
+        void drainAndStop() {
+            draining = true;
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        StageStats stats() {
+            long count = processed.sum();
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            return new StageStats(handler.getClass().getSimpleName(), count, batches.sum(),
+                    queue.size(), seconds > 0 ? count / seconds : 0);
+        }
+    }
+}
+
+// Point-in-time view of one pipeline stage
+class StageStats {
+    private final String name;
+    private final long processed;
+    private final long batches;
+    private final int queueDepth;
+    private final double ordersPerSecond;
+
+    StageStats(String name, long processed, long batches, int queueDepth, double ordersPerSecond) {
+        this.name = name;
+        this.processed = processed;
+        this.batches = batches;
+        this.queueDepth = queueDepth;
+        this.ordersPerSecond = ordersPerSecond;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    long getProcessed() {
+        return processed;
+    }
+
+    long getBatches() {
+        return batches;
+    }
+
+    int getQueueDepth() {
+        return queueDepth;
+    }
+
+    double getOrdersPerSecond() {
+        return ordersPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: processed=%d batches=%d queueDepth=%d throughput=%.0f/s",
+                name, processed, batches, queueDepth, ordersPerSecond);
+    }
+}
@@ -0,0 +1,341 @@
+package Behavioural.Command;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Bounded multi-producer/single-consumer ring of commands and undo requests.
+// Producers claim a slot with one getAndIncrement, fill it, then publish it by storing the slot's
+// sequence; a slot whose published sequence lags tells the consumer the producer is not done yet.
+// Each slot holds either a command or, tagged by a receiver id, a request to undo that receiver.
+class MpscCommandRing {
+    private static final int COMMAND = -1;
+
+    private final Command[] commands;
+    private final int[] undoReceivers;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    MpscCommandRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.commands = new Command[capacity];
+        this.undoReceivers = new int[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, i - 1);
+        }
+        this.mask = capacity - 1;
+    }
+
+    // Spins while the ring is full, which throttles producers to the consumer's pace
+    long offer(Command command) {
+        return publish(command, COMMAND);
+    }
+
+    long offerUndo(int receiver) {
+        return publish(null, receiver);
+    }
+
+    private long publish(Command command, int undoReceiver) {
+        long sequence = tail.getAndIncrement();
+        while (sequence - head.get() > mask) {
+            Thread.onSpinWait();
+        }
+        int index = (int) (sequence & mask);
+        commands[index] = command;
+        undoReceivers[index] = undoReceiver;
+        published.lazySet(index, sequence);
+        return sequence;
+    }
+
+    // Copies published commands into the batch, stopping at the first undo request
+    int drain(Command[] batch) {
+        long first = head.get();
+        int count = 0;
+        while (count < batch.length) {
+            long sequence = first + count;
+            int index = (int) (sequence & mask);
+            if (published.get(index) != sequence || undoReceivers[index] != COMMAND) {
+                break;
+            }
+            batch[count++] = commands[index];
+            commands[index] = null;
+        }
+        return count;
+    }
+
+    // Receiver of the undo request at the head of the ring, or -1 if the head is not one
+    int peekUndo() {
+        long sequence = head.get();
+        int index = (int) (sequence & mask);
+        return published.get(index) == sequence ? undoReceivers[index] : COMMAND;
+    }
+
+    // Frees the drained slots once the batch has been applied
+    void release(int count) {
+        head.lazySet(head.get() + count);
+    }
+
+    long consumed() {
+        return head.get();
+    }
+
+    long produced() {
+        return tail.get();
+    }
+}
+
+// Asynchronous invoker: commands are routed to a shard by receiver, and one consumer per shard
+// applies them in batches. Within a batch only the last command per receiver runs, so on/off/on
+// collapses to on. This relies on commands setting receiver state, as the journal codecs do.
+class AsyncRemoteControl implements AutoCloseable {
+    private static final int SPINS_BEFORE_PARK = 256;
+    private static final long PARK_NANOS = 50_000;
+
+    private final CommandCodec codec;
+    private final Shard[] shards;
+    // Producers check accepting; consumers stop on running, which close clears only after every
+    // accepted command has reached a ring
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+
+    AsyncRemoteControl(CommandCodec codec, int shardCount) {
+        this(codec, shardCount, 1 << 16, 1024, 4096, Executors.defaultThreadFactory());
+    }
+
+    AsyncRemoteControl(CommandCodec codec, int shardCount, int ringCapacity, int batchSize,
+                       int historySize, ThreadFactory threadFactory) {
+        if (shardCount < 1 || batchSize < 1 || historySize < 1) {
+            throw new IllegalArgumentException("Shards, batch size and history size must be positive");
+        }
+        this.codec = codec;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(ringCapacity, batchSize, historySize);
+        }
+        for (Shard shard : shards) {
+            Thread consumer = threadFactory.newThread(shard::run);
+            shard.consumer = consumer;
+            consumer.start();
+        }
+    }
+
+    // Callers should reuse command instances; nothing is allocated per submitted command or undo
+    void submit(Command command) {
+        Shard shard = shardOf(codec.receiverOf(command));
+        shard.enter();
+        try {
+            shard.ring.offer(command);
+        } finally {
+            shard.leave();
+        }
+    }
+
+    // Undoes the newest applied command of the receiver, after everything submitted before it
+    void undo(int receiver) {
+        Shard shard = shardOf(receiver);
+        shard.enter();
+        try {
+            shard.ring.offerUndo(receiver);
+        } finally {
+            shard.leave();
+        }
+    }
+
+    // Waits until every command submitted before this call has been applied or coalesced away
+    void flush() {
+        for (Shard shard : shards) {
+            long target = shard.ring.produced();
+            while (shard.ring.consumed() < target) {
+                Thread.yield();
+            }
+        }
+    }
+
+    long executedCommands() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.executed.get();
+        }
+        return total;
+    }
+
+    long coalescedCommands() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.coalesced.get();
+        }
+        return total;
+    }
+
+    // Commands and undos that threw; the consumer carries on with the rest of the ring
+    long failedCommands() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.failed.get();
+        }
+        return total;
+    }
+
+    public void close() {
+        accepting = false;
+        for (Shard shard : shards) {
+            while (shard.producers.get() > 0) {
+                Thread.onSpinWait();
+            }
+        }
+        flush();
+        running = false;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.consumer);
+            try {
+                shard.consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Shard shardOf(int receiver) {
+        return shards[receiver % shards.length];
+    }
+
+    private final class Shard {
+        final MpscCommandRing ring;
+        final AtomicLong executed = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        // Producers between their accepting check and the end of their offer
+        final AtomicInteger producers = new AtomicInteger();
+        final Command[] batch;
+        final int[] receivers;
+        // Position of each receiver's last command in the current batch
+        int[] lastIndex = new int[16];
+        // Applied commands, newest at historyTop - 1; undone entries are cleared to null
+        final Command[] history;
+        int historyTop;
+        Thread consumer;
+        volatile boolean parked;
+
+        Shard(int ringCapacity, int batchSize, int historySize) {
+            this.ring = new MpscCommandRing(ringCapacity);
+            this.batch = new Command[batchSize];
+            this.receivers = new int[batchSize];
+            this.history = new Command[historySize];
+        }
+
+        void enter() {
+            producers.incrementAndGet();
+            if (!accepting) {
+                producers.decrementAndGet();
+                throw new IllegalStateException("Remote control is closed");
+            }
+        }
+
+        void leave() {
+            producers.decrementAndGet();
+            // Only pay for unpark when the consumer went to sleep on an empty ring
+            if (parked) {
+                LockSupport.unpark(consumer);
+            }
+        }
+
+        void run() {
+            int idle = 0;
+            while (running || ring.consumed() < ring.produced()) {
+                int count = ring.drain(batch);
+                if (count == 0) {
+                    int undoReceiver = ring.peekUndo();
+                    if (undoReceiver >= 0) {
+                        undoLatest(undoReceiver);
+                        ring.release(1);
+                        idle = 0;
+                        continue;
+                    }
+                    if (++idle > SPINS_BEFORE_PARK) {
+                        // Timed park bounds the delay if a producer missed the flag
+                        parked = true;
+                        if (ring.consumed() == ring.produced()) {
+                            LockSupport.parkNanos(PARK_NANOS);
+                        }
+                        parked = false;
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                    continue;
+                }
+                idle = 0;
+                apply(count);
+                Arrays.fill(batch, 0, count, null);
+                ring.release(count);
+            }
+        }
+
+        private void apply(int count) {
+            for (int i = 0; i < count; i++) {
+                int receiver = codec.receiverOf(batch[i]);
+                receivers[i] = receiver;
+                if (receiver >= lastIndex.length) {
+                    lastIndex = Arrays.copyOf(lastIndex, Math.max(receiver + 1, lastIndex.length * 2));
+                }
+                lastIndex[receiver] = i;
+            }
+            int applied = 0;
+            int failures = 0;
+            for (int i = 0; i < count; i++) {
+                if (lastIndex[receivers[i]] == i) {
+                    try {
+                        batch[i].execute();
+                    } catch (RuntimeException | Error e) {
+                        // A throwing command must not stop the consumer, or the ring is never drained again
+                        failures++;
+                        continue;
+                    }
+                    remember(batch[i]);
+                    applied++;
+                }
+            }
+            executed.lazySet(executed.get() + applied);
+            coalesced.lazySet(coalesced.get() + count - applied - failures);
+            failed.lazySet(failed.get() + failures);
+        }
+
+        private void remember(Command command) {
+            if (historyTop == history.length) {
+                // Drop the oldest half; undo only reaches back historySize commands
+                int keep = history.length / 2;
+                System.arraycopy(history, historyTop - keep, history, 0, keep);
+                Arrays.fill(history, keep, history.length, null);
+                historyTop = keep;
+            }
+            history[historyTop++] = command;
+        }
+
+        private void undoLatest(int receiver) {
+            for (int i = historyTop - 1; i >= 0; i--) {
+                Command command = history[i];
+                if (command != null && codec.receiverOf(command) == receiver) {
+                    try {
+                        command.undo();
+                    } catch (RuntimeException | Error e) {
+                        failed.lazySet(failed.get() + 1);
+                    }
+                    history[i] = null;
+                    if (i == historyTop - 1) {
+                        historyTop--;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
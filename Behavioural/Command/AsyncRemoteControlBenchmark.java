@@ -0,0 +1,41 @@
+package Behavioural.Command;
+
+// Measures how many commands per second one shard consumer absorbs from many producers
+public class AsyncRemoteControlBenchmark {
+    private static final int PRODUCERS = 4;
+    private static final int COMMANDS_PER_PRODUCER = 5_000_000;
+    private static final int SWITCHES = 16;
+
+    public static void main(String[] args) throws Exception {
+        Switch[] switches = new Switch[SWITCHES];
+        SwitchCommand[][] commands = new SwitchCommand[SWITCHES][2];
+        for (int i = 0; i < SWITCHES; i++) {
+            switches[i] = new Switch();
+            commands[i][0] = new SwitchCommand(i, switches[i], false);
+            commands[i][1] = new SwitchCommand(i, switches[i], true);
+        }
+        for (int round = 1; round <= 3; round++) {
+            try (AsyncRemoteControl remote = new AsyncRemoteControl(new SwitchCommandCodec(switches), 1)) {
+                Thread[] producers = new Thread[PRODUCERS];
+                long start = System.nanoTime();
+                for (int p = 0; p < PRODUCERS; p++) {
+                    int seed = p;
+                    producers[p] = new Thread(() -> {
+                        for (int i = 0; i < COMMANDS_PER_PRODUCER; i++) {
+                            remote.submit(commands[(seed + i) % SWITCHES][i & 1]);
+                        }
+                    });
+                    producers[p].start();
+                }
+                for (Thread producer : producers) {
+                    producer.join();
+                }
+                remote.flush();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("round %d: %.1fM commands/s, executed=%d coalesced=%d%n", round,
+                        PRODUCERS * COMMANDS_PER_PRODUCER / seconds / 1e6,
+                        remote.executedCommands(), remote.coalescedCommands());
+            }
+        }
+    }
+}
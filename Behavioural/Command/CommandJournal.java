@@ -0,0 +1,341 @@
+package Behavioural.Command;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// When an executed command is forced to disk
+enum SyncMode {
+    NONE,        // left to the OS page cache
+    PER_COMMAND, // one fsync for every command
+    GROUP        // concurrent commands share one fsync
+}
+
+// Turns commands into (receiver, opcode) pairs and back.
+// Journaled commands must set receiver state, so only the last one per receiver matters.
+interface CommandCodec {
+    int receiverOf(Command command);
+
+    int opcodeOf(Command command);
+
+    Command decode(int receiver, int opcode);
+}
+
+// Codec for LightOnCommand/LightOffCommand; lights get ids in registration order
+class LightCommandCodec implements CommandCodec {
+    static final int OFF = 0;
+    static final int ON = 1;
+
+    private final List<Light> lights = new ArrayList<>();
+    private final Map<Light, Integer> ids = new IdentityHashMap<>();
+
+    int register(Light light) {
+        ids.put(light, lights.size());
+        lights.add(light);
+        return lights.size() - 1;
+    }
+
+    public int receiverOf(Command command) {
+        Light light;
+        if (command instanceof LightOnCommand) {
+            light = ((LightOnCommand) command).getLight();
+        } else if (command instanceof LightOffCommand) {
+            light = ((LightOffCommand) command).getLight();
+        } else {
+            throw new IllegalArgumentException("Unsupported command: " + command.getClass().getSimpleName());
+        }
+        Integer id = ids.get(light);
+        if (id == null) {
+            throw new IllegalArgumentException("Light is not registered");
+        }
+        return id;
+    }
+
+    public int opcodeOf(Command command) {
+        return command instanceof LightOnCommand ? ON : OFF;
+    }
+
+    public Command decode(int receiver, int opcode) {
+        Light light = lights.get(receiver);
+        return opcode == ON ? new LightOnCommand(light) : new LightOffCommand(light);
+    }
+}
+
+// Append-only journal over memory-mapped segment files.
+// Each record is 12 bytes: receiver, opcode and a checksum that marks the end of valid data.
+// On rotation the new segment starts with the latest opcode per receiver and older segments are deleted.
+// A command is run first and recorded only if it returns normally, so a command that throws is never
+// replayed; a crash between the two loses it, as it loses the in-memory state it changed.
+class CommandJournal implements AutoCloseable {
+    static final int RECORD_BYTES = 12;
+    private static final int NO_STATE = -1;
+
+    private final Path directory;
+    private final CommandCodec codec;
+    private final SyncMode syncMode;
+    private final int segmentBytes;
+    private final Object appendLock = new Object();
+    private final Object flushLock = new Object();
+    private final AtomicLong durable = new AtomicLong();
+
+    private Segment active;
+    private long segmentIndex;
+    private long written;
+    private long replayed;
+    private int[] states = new int[16];
+    private final List<Path> obsolete = new ArrayList<>();
+    private boolean closed;
+
+    // Receivers must be registered with the codec before opening, replay applies their last state
+    CommandJournal(Path directory, CommandCodec codec, SyncMode syncMode, int segmentBytes) throws IOException {
+        if (segmentBytes < RECORD_BYTES) {
+            throw new IllegalArgumentException("Segment must hold at least one record");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.codec = codec;
+        this.syncMode = syncMode;
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_BYTES;
+        Arrays.fill(states, NO_STATE);
+        List<Path> existing = segments();
+        for (Path segment : existing) {
+            replay(segment);
+        }
+        if (!existing.isEmpty()) {
+            String last = existing.get(existing.size() - 1).getFileName().toString();
+            segmentIndex = Long.parseLong(last.substring(0, last.indexOf('.')));
+        }
+        rotate();
+        for (int receiver = 0; receiver < states.length; receiver++) {
+            if (states[receiver] != NO_STATE) {
+                codec.decode(receiver, states[receiver]).execute();
+            }
+        }
+    }
+
+    // Runs and then records the command; returns once the record is as durable as the sync mode asks
+    void execute(Command command) {
+        int receiver = codec.receiverOf(command);
+        int opcode = codec.opcodeOf(command);
+        long sequence;
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (active.position + RECORD_BYTES > segmentBytes) {
+                rotate();
+            }
+            command.execute();
+            active.write(receiver, opcode);
+            remember(receiver, opcode);
+            sequence = ++written;
+            if (syncMode == SyncMode.PER_COMMAND) {
+                active.force();
+                advanceDurable(sequence);
+            }
+        }
+        if (syncMode == SyncMode.GROUP) {
+            awaitDurable(sequence);
+        }
+    }
+
+    // Records read back from disk when the journal was opened
+    long replayedRecords() {
+        return replayed;
+    }
+
+    long writtenRecords() {
+        synchronized (appendLock) {
+            return written;
+        }
+    }
+
+    public void close() {
+        synchronized (appendLock) {
+            if (!closed) {
+                closed = true;
+                active.force();
+                advanceDurable(written);
+                deleteObsolete();
+            }
+        }
+    }
+
+    // Group commit: whoever takes the flush lock forces everything written so far,
+    // threads that queued behind it usually find their record already durable
+    private void awaitDurable(long sequence) {
+        if (durable.get() >= sequence) {
+            return;
+        }
+        synchronized (flushLock) {
+            if (durable.get() >= sequence) {
+                return;
+            }
+            Segment segment;
+            long target;
+            synchronized (appendLock) {
+                segment = active;
+                target = written;
+            }
+            segment.force();
+            advanceDurable(target);
+        }
+    }
+
+    private void advanceDurable(long sequence) {
+        long current = durable.get();
+        while (sequence > current && !durable.compareAndSet(current, sequence)) {
+            current = durable.get();
+        }
+    }
+
+    private void remember(int receiver, int opcode) {
+        if (receiver >= states.length) {
+            int oldLength = states.length;
+            states = Arrays.copyOf(states, Math.max(receiver + 1, oldLength * 2));
+            Arrays.fill(states, oldLength, states.length, NO_STATE);
+        }
+        states[receiver] = opcode;
+    }
+
+    // Starts a new segment holding only the compacted state, then drops the old ones. Old segments
+    // may still be mapped: Linux deletes them regardless, but platforms such as Windows refuse until
+    // the mapping is garbage collected, so a failed delete is retried at the next rotation and on
+    // close. A leftover segment does no harm, as it replays before the compacted one that supersedes it.
+    private void rotate() {
+        try {
+            if (active != null) {
+                active.force();
+                advanceDurable(written);
+            }
+            segmentIndex++;
+            Segment next = Segment.create(directory.resolve(String.format("%020d.log", segmentIndex)), segmentBytes);
+            for (int receiver = 0; receiver < states.length; receiver++) {
+                if (states[receiver] != NO_STATE) {
+                    if (next.position + RECORD_BYTES > segmentBytes) {
+                        throw new IllegalStateException("Segment too small for the compacted state");
+                    }
+                    next.write(receiver, states[receiver]);
+                }
+            }
+            next.force();
+            // Drop the reference to the old mapping before deleting its file
+            active = next;
+            for (Path old : segments()) {
+                if (!old.equals(next.path) && !obsolete.contains(old)) {
+                    obsolete.add(old);
+                }
+            }
+            deleteObsolete();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteObsolete() {
+        obsolete.removeIf(path -> {
+            try {
+                Files.deleteIfExists(path);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    private void replay(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int limit = buffer.limit() - RECORD_BYTES;
+            for (int position = 0; position <= limit; position += RECORD_BYTES) {
+                int receiver = buffer.getInt(position);
+                int opcode = buffer.getInt(position + 4);
+                // A torn or never written record ends the log
+                if (receiver < 0 || buffer.getInt(position + 8) != checksum(receiver, opcode)) {
+                    break;
+                }
+                remember(receiver, opcode);
+                replayed++;
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // Never matches an all-zero record, so unwritten space is not mistaken for data
+    static int checksum(int receiver, int opcode) {
+        int hash = receiver * 0x9E3779B1 ^ Integer.rotateLeft(opcode * 0x85EBCA6B, 16);
+        return hash ^ (hash >>> 15) ^ 0x5BD1E995;
+    }
+
+    private static final class Segment {
+        final Path path;
+        final MappedByteBuffer buffer;
+        // Written under the append lock, read by whichever thread forces the segment
+        volatile int position;
+        int forced;
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        void write(int receiver, int opcode) {
+            buffer.putInt(position, receiver);
+            buffer.putInt(position + 4, opcode);
+            buffer.putInt(position + 8, checksum(receiver, opcode));
+            position += RECORD_BYTES;
+        }
+
+        // Forces only the bytes written since the last force
+        synchronized void force() {
+            int end = position;
+            if (end > forced) {
+                buffer.force(forced, end - forced);
+                forced = end;
+            }
+        }
+    }
+}
+
+// Invoker that journals every command it runs
+class JournaledRemoteControl {
+    private final CommandJournal journal;
+    private Command command;
+
+    JournaledRemoteControl(CommandJournal journal) {
+        this.journal = journal;
+    }
+
+    void setCommand(Command command) {
+        this.command = command;
+    }
+
+    void pressButton() {
+        journal.execute(command);
+    }
+}
@@ -0,0 +1,138 @@
+package Behavioural.Command;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Silent receiver so the benchmark measures the journal rather than System.out
+class Switch {
+    private volatile boolean on;
+
+    void set(boolean on) {
+        this.on = on;
+    }
+
+    boolean isOn() {
+        return on;
+    }
+}
+
+class SwitchCommand implements Command {
+    private final int id;
+    private final Switch target;
+    private final boolean on;
+
+    SwitchCommand(int id, Switch target, boolean on) {
+        this.id = id;
+        this.target = target;
+        this.on = on;
+    }
+
+    public void execute() {
+        target.set(on);
+    }
+
+    public void undo() {
+        target.set(!on);
+    }
+
+    int getId() {
+        return id;
+    }
+
+    boolean isOn() {
+        return on;
+    }
+}
+
+class SwitchCommandCodec implements CommandCodec {
+    private final Switch[] switches;
+
+    SwitchCommandCodec(Switch[] switches) {
+        this.switches = switches;
+    }
+
+    public int receiverOf(Command command) {
+        return ((SwitchCommand) command).getId();
+    }
+
+    public int opcodeOf(Command command) {
+        return ((SwitchCommand) command).isOn() ? 1 : 0;
+    }
+
+    public Command decode(int receiver, int opcode) {
+        return new SwitchCommand(receiver, switches[receiver], opcode == 1);
+    }
+}
+
+// Compares running commands without a journal, with an fsync per command and with group commit
+public class CommandJournalBenchmark {
+    private static final int THREADS = 8;
+    private static final int COMMANDS_PER_THREAD = 20_000;
+    private static final int SWITCHES = 64;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-12s %12s%n", "mode", "commands/s");
+        System.out.printf("%-12s %12.0f%n", "off", run(null));
+        for (SyncMode mode : new SyncMode[]{SyncMode.NONE, SyncMode.PER_COMMAND, SyncMode.GROUP}) {
+            System.out.printf("%-12s %12.0f%n", mode.name().toLowerCase(), run(mode));
+        }
+    }
+
+    private static double run(SyncMode mode) throws Exception {
+        Switch[] switches = new Switch[SWITCHES];
+        SwitchCommand[][] commands = new SwitchCommand[SWITCHES][2];
+        for (int i = 0; i < SWITCHES; i++) {
+            switches[i] = new Switch();
+            commands[i][0] = new SwitchCommand(i, switches[i], false);
+            commands[i][1] = new SwitchCommand(i, switches[i], true);
+        }
+        Path directory = Files.createTempDirectory("command-journal");
+        try {
+            CommandJournal journal = mode == null ? null
+                    : new CommandJournal(directory, new SwitchCommandCodec(switches), mode, 1 << 20);
+            Thread[] threads = new Thread[THREADS];
+            long start = System.nanoTime();
+            for (int t = 0; t < THREADS; t++) {
+                int seed = t;
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < COMMANDS_PER_THREAD; i++) {
+                        SwitchCommand command = commands[(seed + i) % SWITCHES][i & 1];
+                        if (journal == null) {
+                            command.execute();
+                        } else {
+                            journal.execute(command);
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (journal != null) {
+                journal.close();
+                // Reopening replays the compacted log
+                long replayStart = System.nanoTime();
+                CommandJournal reopened = new CommandJournal(directory, new SwitchCommandCodec(switches), mode, 1 << 20);
+                System.out.printf("  replayed %d records in %.2f ms%n", reopened.replayedRecords(),
+                        (System.nanoTime() - replayStart) / 1e6);
+                reopened.close();
+            }
+            return THREADS * COMMANDS_PER_THREAD / seconds;
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                    try {
+                        Files.delete(path);
+                    } catch (IOException ignored) {
+                        // best effort cleanup of the temp directory
+                    }
+                });
+            }
+        }
+    }
+}
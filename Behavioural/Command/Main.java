@@ -1,5 +1,11 @@
 package Behavioural.Command;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+
 // Command interface
 interface Command {
     void execute();
@@ -15,6 +21,10 @@ class LightOnCommand implements Command {
         this.light = light;
     }
 
+    Light getLight() {
+        return light;
+    }
+
     public void execute() {
         light.turnOn();
     }
@@ -24,15 +34,44 @@ class LightOnCommand implements Command {
     }
 }
 
+// Concrete Command
+class LightOffCommand implements Command {
+    private Light light;
+
+    LightOffCommand(Light light) {
+        this.light = light;
+    }
+
+    Light getLight() {
+        return light;
+    }
+
+    public void execute() {
+        light.turnOff();
+    }
+
+    public void undo() {
+        light.turnOn();
+    }
+}
+
 // Receiver
 class Light {
+    private boolean on;
+
     void turnOn() {
+        on = true;
         System.out.println("Light is on");
     }
 
     void turnOff() {
+        on = false;
         System.out.println("Light is off");
     }
+
+    boolean isOn() {
+        return on;
+    }
 }
 
 // Invoker
@@ -50,7 +89,7 @@ class RemoteControl {
 
 // Client code
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Light light = new Light();
         Command lightOn = new LightOnCommand(light);
 
@@ -58,5 +97,48 @@ public class Main {
         remoteControl.setCommand(lightOn);
 
         remoteControl.pressButton();  // Turns the light on
+
+        // Journaled remote: every command is recorded before pressButton returns
+        Path directory = Files.createTempDirectory("remote-control-journal");
+        LightCommandCodec codec = new LightCommandCodec();
+        codec.register(light);
+        try (CommandJournal journal = new CommandJournal(directory, codec, SyncMode.GROUP, 1 << 16)) {
+            JournaledRemoteControl journaledRemote = new JournaledRemoteControl(journal);
+            journaledRemote.setCommand(new LightOffCommand(light));
+            journaledRemote.pressButton();  // Turns the light off
+        }
+
+        // A new process rebuilds the light from the journal
+        Light recovered = new Light();
+        LightCommandCodec recoveryCodec = new LightCommandCodec();
+        recoveryCodec.register(recovered);
+        try (CommandJournal journal = new CommandJournal(directory, recoveryCodec, SyncMode.GROUP, 1 << 16)) {
+            System.out.println("Recovered light is on: " + recovered.isOn()
+                    + " (replayed " + journal.replayedRecords() + " records)");
+        }
+
+        // Asynchronous remote: on/off/on for the same light collapses to a single on. The consumer is
+        // held back until all three are queued, so they are sure to land in one batch.
+        CountDownLatch queued = new CountDownLatch(1);
+        ThreadFactory heldBack = task -> new Thread(() -> {
+            try {
+                queued.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            task.run();
+        });
+        try (AsyncRemoteControl asyncRemote = new AsyncRemoteControl(recoveryCodec, 1, 1 << 10, 1024, 4096, heldBack)) {
+            Command on = new LightOnCommand(recovered);
+            Command off = new LightOffCommand(recovered);
+            asyncRemote.submit(on);
+            asyncRemote.submit(off);
+            asyncRemote.submit(on);
+            asyncRemote.undo(0);
+            queued.countDown();
+            asyncRemote.flush();
+            System.out.println("Executed " + asyncRemote.executedCommands()
+                    + ", coalesced " + asyncRemote.coalescedCommands());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,278 @@
+package Behavioural.Interpreter;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Evaluates one expression over many rows a column chunk at a time.
+// The postfix program of LinearExpression runs once per chunk rather than once per row, and every
+// ADD becomes a plain counted loop over the chunk that C2 auto-vectorizes. The JDK Vector API is
+// still an incubator module needing --add-modules, so it is not used here.
+// Large batches are split across the common fork-join pool.
+class BatchEvaluator {
+    static final int CHUNK_ROWS = 1024;
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final int PUSH = 0;
+    private static final int ADD = 1;
+    private static final int LOAD = 2;
+
+    // Instructions as (opcode, operand) pairs; operand is a constant value or a column index
+    private final int[] opcodes;
+    private final int[] operands;
+    private final int maxStack;
+    private final int columnCount;
+
+    BatchEvaluator(Expression expression) {
+        LinearExpression linear = LinearExpression.of(expression);
+        int[] code = linear.code();
+        this.opcodes = new int[code.length];
+        this.operands = new int[code.length];
+        int columns = 0;
+        for (int i = 0; i < code.length; i++) {
+            int operand = code[i] >>> 2;
+            switch (code[i] & 3) {
+                case LinearExpression.PUSH:
+                    opcodes[i] = PUSH;
+                    operands[i] = linear.constants()[operand];
+                    break;
+                case LinearExpression.ADD:
+                    opcodes[i] = ADD;
+                    break;
+                default:
+                    Expression call = linear.calls()[operand];
+                    if (!(call instanceof VariableExpression)) {
+                        throw new IllegalArgumentException(
+                                "Batch evaluation supports numbers, variables and additions only");
+                    }
+                    opcodes[i] = LOAD;
+                    operands[i] = ((VariableExpression) call).getColumn();
+                    columns = Math.max(columns, operands[i] + 1);
+            }
+        }
+        this.maxStack = linear.maxStack();
+        this.columnCount = columns;
+    }
+
+    // out[row] = expression with every variable reading columns[variable column][row]
+    void evaluate(int[][] columns, int[] out) {
+        check(columns.length, out.length, shortest(columns));
+        new IntChunks(columns, out).evaluate(0, out.length);
+    }
+
+    void evaluateParallel(int[][] columns, int[] out) {
+        check(columns.length, out.length, shortest(columns));
+        ForkJoinPool.commonPool().invoke(new Split(0, out.length, (from, to) -> new IntChunks(columns, out)
+                .evaluate(from, to)));
+    }
+
+    // Same as evaluate(int[][], int[]) with 64-bit arithmetic
+    void evaluate(long[][] columns, long[] out) {
+        check(columns.length, out.length, shortest(columns));
+        new LongChunks(columns, out).evaluate(0, out.length);
+    }
+
+    void evaluateParallel(long[][] columns, long[] out) {
+        check(columns.length, out.length, shortest(columns));
+        ForkJoinPool.commonPool().invoke(new Split(0, out.length, (from, to) -> new LongChunks(columns, out)
+                .evaluate(from, to)));
+    }
+
+    private void check(int columns, int rows, int shortestColumn) {
+        if (columns < columnCount) {
+            throw new IllegalArgumentException("Expression reads " + columnCount + " columns, got " + columns);
+        }
+        if (shortestColumn < rows) {
+            throw new IllegalArgumentException("Every column needs at least " + rows + " rows");
+        }
+    }
+
+    private static int shortest(int[][] columns) {
+        int shortest = Integer.MAX_VALUE;
+        for (int[] column : columns) {
+            shortest = Math.min(shortest, column.length);
+        }
+        return shortest;
+    }
+
+    private static int shortest(long[][] columns) {
+        int shortest = Integer.MAX_VALUE;
+        for (long[] column : columns) {
+            shortest = Math.min(shortest, column.length);
+        }
+        return shortest;
+    }
+
+    private interface RangeTask {
+        void evaluate(int from, int to);
+    }
+
+    // Halves the row range until it is small enough to run on one worker
+    private static final class Split extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final RangeTask task;
+
+        Split(int from, int to, RangeTask task) {
+            this.from = from;
+            this.to = to;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                task.evaluate(from, to);
+                return;
+            }
+            // Split on a chunk boundary so workers never share a chunk
+            int middle = from + ((to - from) / 2 / CHUNK_ROWS) * CHUNK_ROWS;
+            invokeAll(new Split(from, middle, task), new Split(middle, to, task));
+        }
+    }
+
+    // Operand stack of chunk-sized registers; a register holding a constant is kept as a scalar
+    private final class IntChunks {
+        private final int[][] columns;
+        private final int[] out;
+        private final int[][] registers = new int[maxStack][CHUNK_ROWS];
+        private final boolean[] scalar = new boolean[maxStack];
+        private final int[] scalars = new int[maxStack];
+
+        IntChunks(int[][] columns, int[] out) {
+            this.columns = columns;
+            this.out = out;
+        }
+
+        void evaluate(int from, int to) {
+            for (int start = from; start < to; start += CHUNK_ROWS) {
+                chunk(start, Math.min(CHUNK_ROWS, to - start));
+            }
+        }
+
+        private void chunk(int start, int length) {
+            int top = 0;
+            for (int i = 0; i < opcodes.length; i++) {
+                switch (opcodes[i]) {
+                    case PUSH:
+                        scalar[top] = true;
+                        scalars[top++] = operands[i];
+                        break;
+                    case LOAD:
+                        scalar[top] = false;
+                        System.arraycopy(columns[operands[i]], start, registers[top++], 0, length);
+                        break;
+                    default:
+                        top--;
+                        add(top - 1, top, length);
+                }
+            }
+            if (scalar[0]) {
+                Arrays.fill(out, start, start + length, scalars[0]);
+            } else {
+                System.arraycopy(registers[0], 0, out, start, length);
+            }
+        }
+
+        // registers[left] += registers[right]
+        private void add(int left, int right, int length) {
+            if (scalar[left] && scalar[right]) {
+                scalars[left] += scalars[right];
+                return;
+            }
+            if (scalar[left]) {
+                // Swap so the vector operand sits in the left register
+                int[] swap = registers[left];
+                registers[left] = registers[right];
+                registers[right] = swap;
+                scalar[left] = false;
+                scalar[right] = true;
+                scalars[right] = scalars[left];
+            }
+            int[] target = registers[left];
+            if (scalar[right]) {
+                int value = scalars[right];
+                for (int row = 0; row < length; row++) {
+                    target[row] += value;
+                }
+            } else {
+                int[] source = registers[right];
+                for (int row = 0; row < length; row++) {
+                    target[row] += source[row];
+                }
+            }
+        }
+    }
+
+    private final class LongChunks {
+        private final long[][] columns;
+        private final long[] out;
+        private final long[][] registers = new long[maxStack][CHUNK_ROWS];
+        private final boolean[] scalar = new boolean[maxStack];
+        private final long[] scalars = new long[maxStack];
+
+        LongChunks(long[][] columns, long[] out) {
+            this.columns = columns;
+            this.out = out;
+        }
+
+        void evaluate(int from, int to) {
+            for (int start = from; start < to; start += CHUNK_ROWS) {
+                chunk(start, Math.min(CHUNK_ROWS, to - start));
+            }
+        }
+
+        private void chunk(int start, int length) {
+            int top = 0;
+            for (int i = 0; i < opcodes.length; i++) {
+                switch (opcodes[i]) {
+                    case PUSH:
+                        scalar[top] = true;
+                        scalars[top++] = operands[i];
+                        break;
+                    case LOAD:
+                        scalar[top] = false;
+                        System.arraycopy(columns[operands[i]], start, registers[top++], 0, length);
+                        break;
+                    default:
+                        top--;
+                        add(top - 1, top, length);
+                }
+            }
+            if (scalar[0]) {
+                Arrays.fill(out, start, start + length, scalars[0]);
+            } else {
+                System.arraycopy(registers[0], 0, out, start, length);
+            }
+        }
+
+        private void add(int left, int right, int length) {
+            if (scalar[left] && scalar[right]) {
+                scalars[left] += scalars[right];
+                return;
+            }
+            if (scalar[left]) {
+                long[] swap = registers[left];
+                registers[left] = registers[right];
+                registers[right] = swap;
+                scalar[left] = false;
+                scalar[right] = true;
+                scalars[right] = scalars[left];
+            }
+            long[] target = registers[left];
+            if (scalar[right]) {
+                long value = scalars[right];
+                for (int row = 0; row < length; row++) {
+                    target[row] += value;
+                }
+            } else {
+                long[] source = registers[right];
+                for (int row = 0; row < length; row++) {
+                    target[row] += source[row];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package Behavioural.Interpreter;
+
+import java.util.Random;
+
+// Rows per second for row-at-a-time interpret(), chunked batch evaluation and the parallel batch
+public class BatchEvaluatorBenchmark {
+    private static final int ROWS = 4_000_000;
+    private static final int COLUMNS = 4;
+
+    public static void main(String[] args) {
+        // ((c0 + c1) + 7) + (c2 + c3)
+        VariableExpression[] variables = new VariableExpression[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            variables[i] = new VariableExpression(i);
+        }
+        Expression expression = new AdditionExpression(
+                new AdditionExpression(new AdditionExpression(variables[0], variables[1]), new NumberExpression(7)),
+                new AdditionExpression(variables[2], variables[3]));
+
+        Random random = new Random(8);
+        int[][] columns = new int[COLUMNS][ROWS];
+        for (int[] column : columns) {
+            for (int row = 0; row < ROWS; row++) {
+                column[row] = random.nextInt();
+            }
+        }
+        int[] out = new int[ROWS];
+        BatchEvaluator evaluator = new BatchEvaluator(expression);
+        System.out.println("cores: " + Runtime.getRuntime().availableProcessors());
+        for (int round = 1; round <= 3; round++) {
+            long start = System.nanoTime();
+            int sink = 0;
+            for (int row = 0; row < ROWS; row++) {
+                for (int i = 0; i < COLUMNS; i++) {
+                    variables[i].setValue(columns[i][row]);
+                }
+                sink += expression.interpret();
+            }
+            report("interpret", start, sink);
+
+            start = System.nanoTime();
+            evaluator.evaluate(columns, out);
+            report("batch", start, out[ROWS - 1]);
+
+            start = System.nanoTime();
+            evaluator.evaluateParallel(columns, out);
+            report("parallel batch", start, out[ROWS - 1]);
+        }
+    }
+
+    private static void report(String name, long start, int sink) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-15s %8.1fM rows/s (%d)%n", name, ROWS / seconds / 1e6, sink & 1);
+    }
+}
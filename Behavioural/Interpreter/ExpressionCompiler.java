@@ -0,0 +1,348 @@
+package Behavioural.Interpreter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compiles an expression tree into a hidden class whose interpret() is straight-line bytecode,
+// so the JIT sees plain constant pushes and iadds instead of a virtual call per node.
+// Large trees are split into static helper methods that stay below the JIT's huge-method limit.
+// Trees containing other Expression implementations are returned unchanged (tree walking).
+class ExpressionCompiler {
+    // Bytes of bytecode per method before a subtree is moved into its own method
+    private static final int CHUNK_BYTES = 3000;
+
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC = 0x12;
+    private static final int LDC_W = 0x13;
+    private static final int IADD = 0x60;
+    private static final int IRETURN = 0xAC;
+    private static final int RETURN = 0xB1;
+    private static final int ALOAD_0 = 0x2A;
+    private static final int INVOKESPECIAL = 0xB7;
+    private static final int INVOKESTATIC = 0xB8;
+
+    private static final String CLASS_NAME = "Behavioural/Interpreter/CompiledExpression";
+
+    private ExpressionCompiler() {
+    }
+
+    static Expression compile(Expression expression) {
+        Program program = Program.of(expression);
+        if (program == null) {
+            return expression;
+        }
+        byte[] bytes;
+        try {
+            bytes = new ClassWriter(program).write();
+        } catch (ClassFileOverflowException e) {
+            // A tree the class file cannot hold falls back to tree walking
+            return expression;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (Expression) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (IllegalAccessException e) {
+            // Hidden classes cannot be defined from this lookup; tree walking still works
+            return expression;
+        } catch (RuntimeException | Error e) {
+            // VerifyError, ClassFormatError and the like are bugs in the generated bytecode
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Compiled expression could not be created", e);
+        }
+    }
+
+    // The tree needs more than a class file can hold, e.g. over 65535 constants
+    private static final class ClassFileOverflowException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ClassFileOverflowException(String message) {
+            super(message);
+        }
+    }
+
+    // Tree in postfix order: leaves have no children, additions refer to their operands by position
+    private static final class Program {
+        final int size;
+        final boolean[] addition;
+        final int[] value;
+        final int[] left;
+        final int[] right;
+
+        private Program(int size) {
+            this.size = size;
+            this.addition = new boolean[size];
+            this.value = new int[size];
+            this.left = new int[size];
+            this.right = new int[size];
+        }
+
+        // Null when the tree contains nodes the compiler does not know
+        static Program of(Expression root) {
+            // Reverse of a (node, right, left) pre-order walk is the postfix order
+            List<Expression> reversed = new ArrayList<>();
+            Deque<Expression> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Expression node = pending.pop();
+                reversed.add(node);
+                if (node instanceof AdditionExpression) {
+                    pending.push(((AdditionExpression) node).getLeft());
+                    pending.push(((AdditionExpression) node).getRight());
+                } else if (!(node instanceof NumberExpression)) {
+                    return null;
+                }
+            }
+            Program program = new Program(reversed.size());
+            int[] operands = new int[reversed.size()];
+            int top = 0;
+            for (int i = 0; i < program.size; i++) {
+                Expression node = reversed.get(program.size - 1 - i);
+                if (node instanceof NumberExpression) {
+                    program.value[i] = ((NumberExpression) node).getNumber();
+                } else {
+                    program.addition[i] = true;
+                    program.right[i] = operands[--top];
+                    program.left[i] = operands[--top];
+                }
+                operands[top++] = i;
+            }
+            return program;
+        }
+    }
+
+    private static final class ClassWriter {
+        private final Program program;
+        private final ConstantPool pool = new ConstantPool();
+        // Method index for nodes moved into their own method, -1 for inlined nodes
+        private final int[] method;
+        private final List<Integer> methodRoots = new ArrayList<>();
+        // Operand stack depth of each node's code, counting split-off children as one push
+        private final int[] depth;
+
+        ClassWriter(Program program) {
+            this.program = program;
+            this.method = new int[program.size];
+            this.depth = new int[program.size];
+            split();
+        }
+
+        // Bottom-up code size estimate; any child whose code outgrows a chunk becomes a method
+        private void split() {
+            int[] bytes = new int[program.size];
+            for (int i = 0; i < program.size; i++) {
+                method[i] = -1;
+                if (!program.addition[i]) {
+                    bytes[i] = 3;
+                    depth[i] = 1;
+                    continue;
+                }
+                bytes[i] = 1 + childBytes(program.left[i], bytes) + childBytes(program.right[i], bytes);
+                depth[i] = Math.max(childDepth(program.left[i]), childDepth(program.right[i]) + 1);
+            }
+        }
+
+        private int childDepth(int child) {
+            return method[child] >= 0 ? 1 : depth[child];
+        }
+
+        private int childBytes(int child, int[] bytes) {
+            if (bytes[child] <= CHUNK_BYTES) {
+                return bytes[child];
+            }
+            method[child] = methodRoots.size();
+            methodRoots.add(child);
+            return 3;
+        }
+
+        byte[] write() throws IOException {
+            int thisClass = pool.classRef(CLASS_NAME);
+            int superClass = pool.classRef("java/lang/Object");
+            int iface = pool.classRef("Behavioural/Interpreter/Expression");
+            int objectInit = pool.methodRef(superClass, "<init>", "()V");
+            int codeName = pool.utf8("Code");
+
+            ByteArrayOutputStream methods = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(methods);
+
+            // Public no-arg constructor
+            ByteArrayOutputStream init = new ByteArrayOutputStream();
+            init.write(ALOAD_0);
+            init.write(INVOKESPECIAL);
+            writeShort(init, objectInit);
+            init.write(RETURN);
+            writeMethod(out, 0x0001, "<init>", "()V", codeName, init.toByteArray(), 1, 1);
+
+            writeMethod(out, 0x0001, "interpret", "()I", codeName, body(program.size - 1, thisClass),
+                    depth[program.size - 1], 1);
+            for (int i = 0; i < methodRoots.size(); i++) {
+                int root = methodRoots.get(i);
+                writeMethod(out, 0x000A, "m" + i, "()I", codeName, body(root, thisClass), depth[root], 0);
+            }
+
+            ByteArrayOutputStream file = new ByteArrayOutputStream();
+            DataOutputStream classFile = new DataOutputStream(file);
+            classFile.writeInt(0xCAFEBABE);
+            classFile.writeShort(0);
+            classFile.writeShort(52);
+            pool.writeTo(classFile);
+            classFile.writeShort(0x0030);
+            classFile.writeShort(thisClass);
+            classFile.writeShort(superClass);
+            classFile.writeShort(1);
+            classFile.writeShort(iface);
+            classFile.writeShort(0);
+            classFile.writeShort(2 + methodRoots.size());
+            out.flush();
+            classFile.write(methods.toByteArray());
+            classFile.writeShort(0);
+            classFile.flush();
+            return file.toByteArray();
+        }
+
+        // Postfix code for one method, calling into split-off subtrees
+        private byte[] body(int root, int thisClass) {
+            ByteArrayOutputStream code = new ByteArrayOutputStream();
+            Deque<int[]> pending = new ArrayDeque<>();
+            pending.push(new int[]{root, 0});
+            while (!pending.isEmpty()) {
+                int[] frame = pending.pop();
+                int node = frame[0];
+                if (node != root && method[node] >= 0) {
+                    code.write(INVOKESTATIC);
+                    writeShort(code, pool.methodRef(thisClass, "m" + method[node], "()I"));
+                } else if (!program.addition[node]) {
+                    push(code, program.value[node]);
+                } else if (frame[1] == 0) {
+                    frame[1] = 1;
+                    pending.push(frame);
+                    pending.push(new int[]{program.right[node], 0});
+                    pending.push(new int[]{program.left[node], 0});
+                } else {
+                    code.write(IADD);
+                }
+            }
+            code.write(IRETURN);
+            return code.toByteArray();
+        }
+
+        private void push(ByteArrayOutputStream code, int value) {
+            if (value >= -1 && value <= 5) {
+                code.write(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.write(BIPUSH);
+                code.write(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                code.write(SIPUSH);
+                writeShort(code, value);
+            } else {
+                int index = pool.integer(value);
+                if (index < 256) {
+                    code.write(LDC);
+                    code.write(index);
+                } else {
+                    code.write(LDC_W);
+                    writeShort(code, index);
+                }
+            }
+        }
+
+        private void writeMethod(DataOutputStream out, int access, String name, String descriptor, int codeName,
+                                 byte[] code, int maxStack, int maxLocals) throws IOException {
+            out.writeShort(access);
+            out.writeShort(pool.utf8(name));
+            out.writeShort(pool.utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+
+        private static void writeShort(ByteArrayOutputStream out, int value) {
+            out.write(value >>> 8);
+            out.write(value);
+        }
+    }
+
+    // Deduplicating constant pool; entries are serialised in the order they were added
+    private static final class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            return entry("U" + value, 1, () -> out.writeUTF(value));
+        }
+
+        int integer(int value) {
+            return entry("I" + value, 3, () -> out.writeInt(value));
+        }
+
+        int classRef(String name) {
+            int nameIndex = utf8(name);
+            return entry("C" + name, 7, () -> out.writeShort(nameIndex));
+        }
+
+        int methodRef(int owner, String name, String descriptor) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = entry("N" + name + descriptor, 12, () -> {
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+            return entry("M" + owner + "." + name + descriptor, 10, () -> {
+                out.writeShort(owner);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        void writeTo(DataOutputStream classFile) throws IOException {
+            if (count > 0xFFFF) {
+                throw new ClassFileOverflowException("Constant pool overflow");
+            }
+            classFile.writeShort(count);
+            out.flush();
+            classFile.write(bytes.toByteArray());
+        }
+
+        private int entry(String key, int tag, EntryWriter writer) {
+            Integer index = entries.get(key);
+            if (index != null) {
+                return index;
+            }
+            try {
+                out.writeByte(tag);
+                writer.write();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            entries.put(key, count);
+            return count++;
+        }
+
+        private interface EntryWriter {
+            void write() throws IOException;
+        }
+    }
+}
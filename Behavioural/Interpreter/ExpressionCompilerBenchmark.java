@@ -0,0 +1,49 @@
+package Behavioural.Interpreter;
+
+import java.util.Random;
+
+// Compares tree-walking interpret() with the compiled hidden class on left-leaning chains
+public class ExpressionCompilerBenchmark {
+    private static final long NODES_PER_RUN = 50_000_000L;
+
+    public static void main(String[] args) {
+        System.out.printf("%8s %14s %14s %8s%n", "depth", "tree ns/eval", "compiled ns/eval", "speedup");
+        for (int depth : new int[]{10, 100, 1_000, 10_000}) {
+            Expression tree = chain(depth, new Random(depth));
+            Expression compiled = ExpressionCompiler.compile(tree);
+            if (compiled.interpret() != tree.interpret()) {
+                throw new IllegalStateException("Compiled result differs at depth " + depth);
+            }
+            long iterations = Math.max(1, NODES_PER_RUN / depth);
+            // First pass warms up both paths, the second one is measured
+            time(tree, iterations);
+            time(compiled, iterations);
+            double treeNanos = time(tree, iterations);
+            double compiledNanos = time(compiled, iterations);
+            System.out.printf("%8d %14.1f %14.1f %7.1fx%n", depth, treeNanos, compiledNanos,
+                    treeNanos / compiledNanos);
+        }
+    }
+
+    // ((n0 + n1) + n2) + ... with depth additions
+    static Expression chain(int depth, Random random) {
+        Expression expression = new NumberExpression(random.nextInt(1000));
+        for (int i = 0; i < depth; i++) {
+            expression = new AdditionExpression(expression, new NumberExpression(random.nextInt(1000)));
+        }
+        return expression;
+    }
+
+    private static double time(Expression expression, long iterations) {
+        long start = System.nanoTime();
+        int sink = 0;
+        for (long i = 0; i < iterations; i++) {
+            sink += expression.interpret();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return (double) elapsed / iterations;
+    }
+}
@@ -0,0 +1,286 @@
+package Behavioural.Interpreter;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Optimisation pass over expression graphs:
+// - folds additions of constants (and x + 0) into their result,
+// - hash-conses structurally identical nodes into one shared DAG node,
+//   treating a + b and b + a as the same node since int addition commutes,
+// - keeps variables and unknown Expression implementations as opaque leaves. Leaves are shared only
+//   when the same instance is reused: every VariableExpression holds its own bound value, so two
+//   instances of one column may read different values.
+class ExpressionOptimizer {
+    // Rough 64-bit JVM object sizes with compressed references
+    static final int NUMBER_NODE_BYTES = 16;
+    static final int ADDITION_NODE_BYTES = 24;
+
+    private ExpressionOptimizer() {
+    }
+
+    static OptimizedExpression optimize(Expression root) {
+        Builder builder = new Builder();
+        Map<Expression, Integer> ids = new IdentityHashMap<>();
+        Map<Expression, Long> treeSizes = new IdentityHashMap<>();
+        long inputBytes = 0;
+        // Iterative post-order so deep trees do not overflow the stack
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Expression node = pending.peek();
+            if (ids.containsKey(node)) {
+                pending.pop();
+                continue;
+            }
+            if (node instanceof AdditionExpression) {
+                Expression left = ((AdditionExpression) node).getLeft();
+                Expression right = ((AdditionExpression) node).getRight();
+                boolean ready = true;
+                if (!ids.containsKey(right)) {
+                    pending.push(right);
+                    ready = false;
+                }
+                if (!ids.containsKey(left)) {
+                    pending.push(left);
+                    ready = false;
+                }
+                if (!ready) {
+                    continue;
+                }
+                pending.pop();
+                ids.put(node, builder.addition(ids.get(left), ids.get(right)));
+                long treeSize = 1 + treeSizes.get(left) + treeSizes.get(right);
+                // Heavily shared DAGs can describe trees with more than Long.MAX_VALUE nodes
+                treeSizes.put(node, treeSize < 0 ? Long.MAX_VALUE : treeSize);
+                inputBytes += ADDITION_NODE_BYTES;
+            } else {
+                pending.pop();
+                if (node instanceof NumberExpression) {
+                    ids.put(node, builder.constant(((NumberExpression) node).getNumber()));
+                    inputBytes += NUMBER_NODE_BYTES;
+                } else {
+                    ids.put(node, builder.opaque(node));
+                }
+                treeSizes.put(node, 1L);
+            }
+        }
+        return builder.build(ids.get(root),
+                new OptimizationReport(treeSizes.get(root), ids.size(), inputBytes));
+    }
+
+    // Interns nodes as it creates them; ids are in topological order (operands before users)
+    private static final class Builder {
+        static final byte CONSTANT = OptimizedExpression.CONSTANT;
+        static final byte ADDITION = OptimizedExpression.ADDITION;
+        static final byte OPAQUE = OptimizedExpression.OPAQUE;
+
+        byte[] kinds = new byte[16];
+        int[] values = new int[16];
+        int[] lefts = new int[16];
+        int[] rights = new int[16];
+        Expression[] opaques = new Expression[16];
+        int size;
+
+        final Map<Integer, Integer> constants = new HashMap<>();
+        final Map<Long, Integer> additions = new HashMap<>();
+        final Map<Expression, Integer> opaqueIds = new IdentityHashMap<>();
+
+        int constant(int value) {
+            Integer id = constants.get(value);
+            if (id == null) {
+                id = add(CONSTANT, value, 0, 0, null);
+                constants.put(value, id);
+            }
+            return id;
+        }
+
+        int addition(int left, int right) {
+            if (kinds[left] == CONSTANT && kinds[right] == CONSTANT) {
+                return constant(values[left] + values[right]);
+            }
+            if (kinds[left] == CONSTANT && values[left] == 0) {
+                return right;
+            }
+            if (kinds[right] == CONSTANT && values[right] == 0) {
+                return left;
+            }
+            long key = ((long) Math.min(left, right) << 32) | Math.max(left, right);
+            Integer id = additions.get(key);
+            if (id == null) {
+                id = add(ADDITION, 0, left, right, null);
+                additions.put(key, id);
+            }
+            return id;
+        }
+
+        int opaque(Expression expression) {
+            Integer id = opaqueIds.get(expression);
+            if (id == null) {
+                id = add(OPAQUE, 0, 0, 0, expression);
+                opaqueIds.put(expression, id);
+            }
+            return id;
+        }
+
+        private int add(byte kind, int value, int left, int right, Expression opaque) {
+            if (size == kinds.length) {
+                int length = size * 2;
+                kinds = Arrays.copyOf(kinds, length);
+                values = Arrays.copyOf(values, length);
+                lefts = Arrays.copyOf(lefts, length);
+                rights = Arrays.copyOf(rights, length);
+                opaques = Arrays.copyOf(opaques, length);
+            }
+            kinds[size] = kind;
+            values[size] = value;
+            lefts[size] = left;
+            rights[size] = right;
+            opaques[size] = opaque;
+            return size++;
+        }
+
+        // Keeps only nodes reachable from the root; folding leaves dead intermediate nodes behind
+        OptimizedExpression build(int root, OptimizationReport partial) {
+            boolean[] live = new boolean[size];
+            live[root] = true;
+            for (int i = root; i >= 0; i--) {
+                if (live[i] && kinds[i] == ADDITION) {
+                    live[lefts[i]] = true;
+                    live[rights[i]] = true;
+                }
+            }
+            int[] remap = new int[size];
+            int count = 0;
+            for (int i = 0; i <= root; i++) {
+                if (live[i]) {
+                    remap[i] = count++;
+                }
+            }
+            OptimizedExpression result = new OptimizedExpression(count);
+            for (int i = 0; i <= root; i++) {
+                if (!live[i]) {
+                    continue;
+                }
+                int id = remap[i];
+                result.kinds[id] = kinds[i];
+                result.values[id] = values[i];
+                result.lefts[id] = remap[lefts[i]];
+                result.rights[id] = remap[rights[i]];
+                result.opaques[id] = opaques[i];
+            }
+            result.report = partial.withOptimizedNodes(count, result.estimatedBytes());
+            return result;
+        }
+    }
+}
+
+// Shared DAG in topological order; every node is evaluated once per interpret()
+class OptimizedExpression implements Expression {
+    static final byte CONSTANT = 0;
+    static final byte ADDITION = 1;
+    static final byte OPAQUE = 2;
+
+    final byte[] kinds;
+    final int[] values;
+    final int[] lefts;
+    final int[] rights;
+    final Expression[] opaques;
+    OptimizationReport report;
+    private final ThreadLocal<int[]> scratch;
+
+    OptimizedExpression(int size) {
+        this.kinds = new byte[size];
+        this.values = new int[size];
+        this.lefts = new int[size];
+        this.rights = new int[size];
+        this.opaques = new Expression[size];
+        this.scratch = ThreadLocal.withInitial(() -> new int[size]);
+    }
+
+    public int interpret() {
+        int[] results = scratch.get();
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case CONSTANT:
+                    results[i] = values[i];
+                    break;
+                case ADDITION:
+                    results[i] = results[lefts[i]] + results[rights[i]];
+                    break;
+                default:
+                    results[i] = opaques[i].interpret();
+            }
+        }
+        return results[kinds.length - 1];
+    }
+
+    int nodeCount() {
+        return kinds.length;
+    }
+
+    OptimizationReport getReport() {
+        return report;
+    }
+
+    long estimatedBytes() {
+        // kind + value + two operand ints + one reference per node, plus five array headers
+        return kinds.length * (1L + 4 + 4 + 4 + 4) + 5 * 16;
+    }
+}
+
+// Size of an expression before and after optimisation
+class OptimizationReport {
+    private final long evaluatedNodesBefore;
+    private final long distinctNodesBefore;
+    private final long bytesBefore;
+    private final long nodesAfter;
+    private final long bytesAfter;
+
+    OptimizationReport(long evaluatedNodesBefore, long distinctNodesBefore, long bytesBefore) {
+        this(evaluatedNodesBefore, distinctNodesBefore, bytesBefore, 0, 0);
+    }
+
+    private OptimizationReport(long evaluatedNodesBefore, long distinctNodesBefore, long bytesBefore,
+                               long nodesAfter, long bytesAfter) {
+        this.evaluatedNodesBefore = evaluatedNodesBefore;
+        this.distinctNodesBefore = distinctNodesBefore;
+        this.bytesBefore = bytesBefore;
+        this.nodesAfter = nodesAfter;
+        this.bytesAfter = bytesAfter;
+    }
+
+    OptimizationReport withOptimizedNodes(long nodesAfter, long bytesAfter) {
+        return new OptimizationReport(evaluatedNodesBefore, distinctNodesBefore, bytesBefore, nodesAfter, bytesAfter);
+    }
+
+    // Node visits one interpret() of the original tree makes
+    long getEvaluatedNodesBefore() {
+        return evaluatedNodesBefore;
+    }
+
+    long getDistinctNodesBefore() {
+        return distinctNodesBefore;
+    }
+
+    long getBytesBefore() {
+        return bytesBefore;
+    }
+
+    long getNodesAfter() {
+        return nodesAfter;
+    }
+
+    long getBytesAfter() {
+        return bytesAfter;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("nodes evaluated %d -> %d, objects %d, bytes %d -> %d",
+                evaluatedNodesBefore, nodesAfter, distinctNodesBefore, bytesBefore, bytesAfter);
+    }
+}
@@ -0,0 +1,186 @@
+package Behavioural.Interpreter;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Single-pass parser building expression trees straight from text.
+// Grammar: expression := term ('+' term)*, term := integer | '$' column | '(' expression ')'.
+// Expressions in one input are separated by ';' or newlines; blank ones are skipped.
+// Numbers are accumulated digit by digit and parentheses use an explicit stack, so the only
+// allocations are the Expression nodes themselves and nesting depth is not limited by the call stack.
+class ExpressionParser {
+    private Expression[] sums = new Expression[16];
+    private int depth;
+
+    static Expression parse(CharSequence text) {
+        Expression[] result = new Expression[1];
+        int count = new ExpressionParser().parseAll(new CharSource(text), expression -> result[0] = expression);
+        if (count != 1) {
+            throw new IllegalArgumentException("Expected one expression, found " + count);
+        }
+        return result[0];
+    }
+
+    // Returns the number of expressions handed to the sink
+    int parseAll(CharSequence text, Consumer<Expression> sink) {
+        return parseAll(new CharSource(text), sink);
+    }
+
+    // Reads ASCII/UTF-8 bytes from position to limit without moving the buffer's position
+    int parseAll(ByteBuffer bytes, Consumer<Expression> sink) {
+        return parseAll(new ByteSource(bytes), sink);
+    }
+
+    private int parseAll(Source source, Consumer<Expression> sink) {
+        int count = 0;
+        int position = source.start();
+        int end = source.end();
+        boolean expectTerm = true;
+        depth = 0;
+        sums[0] = null;
+        while (position <= end) {
+            int c = position < end ? source.charAt(position) : ';';
+            if (c == ' ' || c == '\t' || c == '\r') {
+                position++;
+            } else if (c == ';' || c == '\n') {
+                if (depth > 0) {
+                    throw error("Unclosed '('", position);
+                }
+                if (sums[0] != null) {
+                    if (expectTerm) {
+                        throw error("Missing term after '+'", position);
+                    }
+                    sink.accept(sums[0]);
+                    sums[0] = null;
+                    count++;
+                }
+                expectTerm = true;
+                position++;
+            } else if (!expectTerm) {
+                if (c == '+') {
+                    expectTerm = true;
+                } else if (c == ')') {
+                    if (depth == 0) {
+                        throw error("Unmatched ')'", position);
+                    }
+                    Expression group = sums[depth--];
+                    sums[depth] = append(sums[depth], group);
+                } else {
+                    throw error("Expected '+'", position);
+                }
+                position++;
+            } else if (c == '(') {
+                if (++depth == sums.length) {
+                    sums = Arrays.copyOf(sums, depth * 2);
+                }
+                sums[depth] = null;
+                position++;
+            } else if (c == '$') {
+                int digitsEnd = digitsEnd(source, position + 1, end);
+                long column = number(source, position + 1, digitsEnd);
+                if (column > Integer.MAX_VALUE) {
+                    throw error("Column out of int range", position);
+                }
+                sums[depth] = append(sums[depth], new VariableExpression((int) column));
+                expectTerm = false;
+                position = digitsEnd;
+            } else if (c == '-' || (c >= '0' && c <= '9')) {
+                int digitsStart = c == '-' ? position + 1 : position;
+                int digitsEnd = digitsEnd(source, digitsStart, end);
+                long value = number(source, digitsStart, digitsEnd);
+                if (c == '-') {
+                    value = -value;
+                }
+                if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                    throw error("Number out of int range", position);
+                }
+                sums[depth] = append(sums[depth], new NumberExpression((int) value));
+                expectTerm = false;
+                position = digitsEnd;
+            } else {
+                throw error("Unexpected '" + (char) c + "'", position);
+            }
+        }
+        return count;
+    }
+
+    private static Expression append(Expression sum, Expression term) {
+        return sum == null ? term : new AdditionExpression(sum, term);
+    }
+
+    private static int digitsEnd(Source source, int position, int end) {
+        while (position < end) {
+            int c = source.charAt(position);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    // Value of the digits in [from, to); stops growing past int range so callers can report it
+    private static long number(Source source, int from, int to) {
+        if (from == to) {
+            throw error("Expected digits", from);
+        }
+        long value = 0;
+        for (int i = from; i < to && value <= Integer.MAX_VALUE + 1L; i++) {
+            value = value * 10 + (source.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException error(String message, int position) {
+        return new IllegalArgumentException(message + " at offset " + position);
+    }
+
+    private interface Source {
+        int start();
+
+        int end();
+
+        int charAt(int position);
+    }
+
+    private static final class CharSource implements Source {
+        private final CharSequence text;
+
+        CharSource(CharSequence text) {
+            this.text = text;
+        }
+
+        public int start() {
+            return 0;
+        }
+
+        public int end() {
+            return text.length();
+        }
+
+        public int charAt(int position) {
+            return text.charAt(position);
+        }
+    }
+
+    private static final class ByteSource implements Source {
+        private final ByteBuffer bytes;
+
+        ByteSource(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        public int start() {
+            return bytes.position();
+        }
+
+        public int end() {
+            return bytes.limit();
+        }
+
+        public int charAt(int position) {
+            return bytes.get(position) & 0xFF;
+        }
+    }
+}
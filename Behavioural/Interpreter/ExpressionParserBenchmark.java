@@ -0,0 +1,54 @@
+package Behavioural.Interpreter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+// Parse throughput in MB/s for a generated rule set, from a String and from a direct ByteBuffer
+public class ExpressionParserBenchmark {
+    private static final int RULES = 200_000;
+
+    public static void main(String[] args) {
+        String rules = generate(new Random(9));
+        ByteBuffer bytes = ByteBuffer.allocateDirect(rules.length());
+        bytes.put(rules.getBytes(StandardCharsets.US_ASCII)).flip();
+        double megabytes = rules.length() / 1e6;
+        System.out.printf("%d rules, %.1f MB%n", RULES, megabytes);
+
+        ExpressionParser parser = new ExpressionParser();
+        long[] checksum = new long[1];
+        for (int round = 1; round <= 5; round++) {
+            long start = System.nanoTime();
+            int parsed = parser.parseAll(rules, expression -> checksum[0] += expression.hashCode() & 1);
+            double textSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            parser.parseAll(bytes, expression -> checksum[0] += expression.hashCode() & 1);
+            double byteSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("round %d: %d expressions, CharSequence %.0f MB/s, ByteBuffer %.0f MB/s%n",
+                    round, parsed, megabytes / textSeconds, megabytes / byteSeconds);
+        }
+    }
+
+    // Lines such as "($3 + 120) + (7 + $0) + 45"
+    private static String generate(Random random) {
+        StringBuilder text = new StringBuilder(RULES * 32);
+        for (int i = 0; i < RULES; i++) {
+            int terms = 2 + random.nextInt(6);
+            for (int term = 0; term < terms; term++) {
+                if (term > 0) {
+                    text.append(" + ");
+                }
+                if (random.nextInt(4) == 0) {
+                    text.append("($").append(random.nextInt(8)).append(" + ").append(random.nextInt(1000)).append(')');
+                } else if (random.nextBoolean()) {
+                    text.append('$').append(random.nextInt(8));
+                } else {
+                    text.append(random.nextInt(100_000));
+                }
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package Behavioural.Interpreter;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Expression flattened into postfix opcodes and evaluated by a loop instead of recursion,
+// so trees of any depth evaluate without growing the call stack.
+// Each instruction is one int: the low two bits are the opcode, the rest its operand index.
+class LinearExpression implements Expression {
+    static final int PUSH = 0; // push constants[operand]
+    static final int ADD = 1;  // pop two values, push their sum
+    static final int CALL = 2; // push calls[operand].interpret() for unknown node types
+
+    private final int[] code;
+    private final int[] constants;
+    private final Expression[] calls;
+    private final int maxStack;
+    private final ThreadLocal<int[]> stacks;
+
+    private LinearExpression(int[] code, int[] constants, Expression[] calls, int maxStack) {
+        this.code = code;
+        this.constants = constants;
+        this.calls = calls;
+        this.maxStack = maxStack;
+        this.stacks = ThreadLocal.withInitial(() -> new int[maxStack]);
+    }
+
+    static LinearExpression of(Expression root) {
+        int[] code = new int[16];
+        int size = 0;
+        Map<Integer, Integer> constantIndex = new HashMap<>();
+        int[] constants = new int[16];
+        Expression[] calls = new Expression[4];
+        int callCount = 0;
+        int depth = 0;
+        int maxStack = 0;
+        // Explicit post-order walk: a node is emitted when it is popped the second time
+        Deque<Expression> pending = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        pending.push(root);
+        expanded.push(false);
+        while (!pending.isEmpty()) {
+            Expression node = pending.pop();
+            boolean seen = expanded.pop();
+            int instruction;
+            if (node instanceof AdditionExpression && !seen) {
+                pending.push(node);
+                expanded.push(true);
+                pending.push(((AdditionExpression) node).getRight());
+                expanded.push(false);
+                pending.push(((AdditionExpression) node).getLeft());
+                expanded.push(false);
+                continue;
+            } else if (node instanceof AdditionExpression) {
+                instruction = ADD;
+                depth--;
+            } else if (node instanceof NumberExpression) {
+                int value = ((NumberExpression) node).getNumber();
+                Integer index = constantIndex.get(value);
+                if (index == null) {
+                    index = constantIndex.size();
+                    constantIndex.put(value, index);
+                    if (index == constants.length) {
+                        constants = Arrays.copyOf(constants, index * 2);
+                    }
+                    constants[index] = value;
+                }
+                instruction = index << 2 | PUSH;
+                depth++;
+            } else {
+                if (callCount == calls.length) {
+                    calls = Arrays.copyOf(calls, callCount * 2);
+                }
+                calls[callCount] = node;
+                instruction = callCount++ << 2 | CALL;
+                depth++;
+            }
+            maxStack = Math.max(maxStack, depth);
+            if (size == code.length) {
+                code = Arrays.copyOf(code, size * 2);
+            }
+            code[size++] = instruction;
+        }
+        return new LinearExpression(Arrays.copyOf(code, size), Arrays.copyOf(constants, constantIndex.size()),
+                Arrays.copyOf(calls, callCount), maxStack);
+    }
+
+    public int interpret() {
+        return interpret(stacks.get());
+    }
+
+    // Evaluates with a caller-supplied operand stack of at least maxStack() ints
+    int interpret(int[] stack) {
+        int[] code = this.code;
+        int top = 0;
+        for (int i = 0; i < code.length; i++) {
+            int instruction = code[i];
+            switch (instruction & 3) {
+                case PUSH:
+                    stack[top++] = constants[instruction >>> 2];
+                    break;
+                case ADD:
+                    top--;
+                    stack[top - 1] += stack[top];
+                    break;
+                default:
+                    stack[top++] = calls[instruction >>> 2].interpret();
+            }
+        }
+        return stack[0];
+    }
+
+    int[] code() {
+        return code;
+    }
+
+    int[] constants() {
+        return constants;
+    }
+
+    Expression[] calls() {
+        return calls;
+    }
+
+    int maxStack() {
+        return maxStack;
+    }
+
+    int instructionCount() {
+        return code.length;
+    }
+}
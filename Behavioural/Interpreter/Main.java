@@ -16,6 +16,32 @@ class NumberExpression implements Expression {
     public int interpret() {
         return number;
     }
+
+    int getNumber() {
+        return number;
+    }
+}
+
+// Terminal expression reading a column of the input; interpret() returns the value last bound to it
+class VariableExpression implements Expression {
+    private int column;
+    private int value;
+
+    VariableExpression(int column) {
+        this.column = column;
+    }
+
+    public int interpret() {
+        return value;
+    }
+
+    int getColumn() {
+        return column;
+    }
+
+    void setValue(int value) {
+        this.value = value;
+    }
 }
 
 // Non-terminal expression
@@ -31,6 +57,14 @@ class AdditionExpression implements Expression {
     public int interpret() {
         return left.interpret() + right.interpret();
     }
+
+    Expression getLeft() {
+        return left;
+    }
+
+    Expression getRight() {
+        return right;
+    }
 }
 
 // Client code
@@ -43,5 +77,34 @@ public class Main {
 
         int result = expression.interpret();
         System.out.println("Result: " + result); // Output: Result: 8
+
+        Expression compiled = ExpressionCompiler.compile(expression);
+        System.out.println("Compiled result: " + compiled.interpret()); // Output: Compiled result: 8
+
+        // (5 + 3) + (3 + 5) folds and shares down to a single constant
+        Expression repeated = new AdditionExpression(expression, new AdditionExpression(
+                new NumberExpression(3), new NumberExpression(5)));
+        OptimizedExpression optimized = ExpressionOptimizer.optimize(repeated);
+        System.out.println("Optimized result: " + optimized.interpret()); // Output: Optimized result: 16
+        System.out.println(optimized.getReport());
+
+        // A chain this deep overflows the stack in interpret(), the linear form just loops
+        Expression deep = new NumberExpression(0);
+        for (int i = 0; i < 100_000; i++) {
+            deep = new AdditionExpression(deep, new NumberExpression(1));
+        }
+        System.out.println("Linear result: " + LinearExpression.of(deep).interpret()); // Output: Linear result: 100000
+
+        // column0 + column1 + 10 evaluated over every row at once
+        Expression withColumns = new AdditionExpression(
+                new AdditionExpression(new VariableExpression(0), new VariableExpression(1)),
+                new NumberExpression(10));
+        int[][] columns = {{1, 2, 3}, {10, 20, 30}};
+        int[] rows = new int[3];
+        new BatchEvaluator(withColumns).evaluate(columns, rows);
+        System.out.println("Batch result: " + java.util.Arrays.toString(rows)); // Output: Batch result: [21, 32, 43]
+
+        Expression parsed = ExpressionParser.parse("(5 + 3) + 10");
+        System.out.println("Parsed result: " + parsed.interpret()); // Output: Parsed result: 18
     }
 }
\ No newline at end of file
@@ -1,5 +1,14 @@
 package Behavioural.Iterator;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 // Aggregate interface
 interface Playlist {
     Iterator<Song> createIterator();
@@ -10,6 +19,12 @@ interface Iterator<T> {
     boolean hasNext();
 
     T next();
+
+    default void forEachRemaining(Consumer<? super T> action) {
+        while (hasNext()) {
+            action.accept(next());
+        }
+    }
 }
 
 // Concrete aggregate
@@ -23,6 +38,18 @@ class SongPlaylist implements Playlist {
     public Iterator<Song> createIterator() {
         return new ArrayIterator(songs);
     }
+
+    Spliterator<Song> spliterator() {
+        return new SongSpliterator(songs);
+    }
+
+    Stream<Song> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    Stream<Song> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
 }
 
 // Song class
@@ -58,11 +85,20 @@ class ArrayIterator implements Iterator<Song> {
         }
         return null;
     }
+
+    // Walks the rest of the array directly instead of calling hasNext()/next() per song
+    public void forEachRemaining(Consumer<? super Song> action) {
+        Song[] songs = this.songs;
+        for (int i = position; i < songs.length; i++) {
+            action.accept(songs[i]);
+        }
+        position = songs.length;
+    }
 }
 
 // Client code
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Song[] songs = {
                 new Song("Song 1"),
                 new Song("Song 2"),
@@ -76,5 +112,21 @@ public class Main {
             Song song = iterator.next();
             System.out.println("Playing: " + song.getTitle());
         }
+
+        // Same playlist scanned through a parallel stream
+        SongPlaylist catalog = new SongPlaylist(songs);
+        long matches = catalog.parallelStream()
+                .filter(song -> song.getTitle().endsWith("2"))
+                .count();
+        System.out.println("Songs ending in 2: " + matches);
+
+        // Catalog file read through a memory mapping instead of a Song[]
+        Path catalogFile = Files.createTempFile("songs", ".catalog");
+        CatalogWriter.write(catalogFile, List.of("Song 1", "Song 2", "Song 3"));
+        Iterator<Song> mapped = new MappedPlaylist(catalogFile).createIterator();
+        while (mapped.hasNext()) {
+            System.out.println("Playing from catalog: " + mapped.next().getTitle());
+        }
+        Files.delete(catalogFile);
     }
 }
\ No newline at end of file
@@ -0,0 +1,222 @@
+package Behavioural.Iterator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Binary catalog layout (all numbers big-endian):
+//   header: magic, song count, index offset (3 longs)
+//   titles: UTF-8 bytes, back to back
+//   index:  count + 1 longs at an 8-byte aligned offset; entry i is where title i starts,
+//           with the top bit set when the title is pure ASCII, and entry count is the end
+class CatalogWriter {
+    static final long MAGIC = 0x534F4E4743415431L; // "SONGCAT1"
+    static final int HEADER_BYTES = 24;
+    static final long ASCII_FLAG = 1L << 63;
+
+    private CatalogWriter() {
+    }
+
+    // Streams titles to disk; the index is spooled to a temp file so memory use stays flat
+    static void write(Path catalog, Iterable<String> titles) throws IOException {
+        Path index = Files.createTempFile(catalog.toAbsolutePath().getParent(), "catalog", ".idx");
+        try (FileChannel channel = FileChannel.open(catalog, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream indexOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(index)))) {
+            long count = 0;
+            long offset = HEADER_BYTES;
+            OutputStream titlesOut = new BufferedOutputStream(Channels.newOutputStream(channel.position(offset)));
+            for (String title : titles) {
+                byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+                indexOut.writeLong(bytes.length == title.length() ? offset | ASCII_FLAG : offset);
+                titlesOut.write(bytes);
+                offset += bytes.length;
+                count++;
+            }
+            indexOut.writeLong(offset);
+            long indexOffset = (offset + 7) & ~7L;
+            titlesOut.write(new byte[(int) (indexOffset - offset)]);
+            titlesOut.flush();
+            indexOut.flush();
+
+            try (FileChannel indexChannel = FileChannel.open(index, StandardOpenOption.READ)) {
+                long size = indexChannel.size();
+                for (long copied = 0; copied < size; ) {
+                    copied += channel.transferFrom(indexChannel, indexOffset + copied, size - copied);
+                }
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putLong(MAGIC).putLong(count).putLong(indexOffset).flip();
+            channel.write(header, 0);
+        } finally {
+            Files.deleteIfExists(index);
+        }
+    }
+}
+
+// Playlist over a memory-mapped catalog file. Nothing is read until a song is asked for,
+// titles are decoded only when getTitle() is called, and ASCII titles can be viewed in place.
+// Files over 2 GB are mapped as several 1 GB regions.
+class MappedPlaylist implements Playlist {
+    private static final int REGION_BITS = 30;
+    private static final long REGION_MASK = (1L << REGION_BITS) - 1;
+
+    private final MappedByteBuffer[] regions;
+    private final int size;
+    private final long indexOffset;
+
+    MappedPlaylist(Path catalog) throws IOException {
+        try (FileChannel channel = FileChannel.open(catalog, StandardOpenOption.READ)) {
+            long length = channel.size();
+            regions = new MappedByteBuffer[(int) ((length + REGION_MASK) >>> REGION_BITS)];
+            for (int i = 0; i < regions.length; i++) {
+                long start = (long) i << REGION_BITS;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << REGION_BITS, length - start));
+            }
+        }
+        if (regions.length == 0 || getLong(0) != CatalogWriter.MAGIC) {
+            throw new IOException("Not a song catalog: " + catalog);
+        }
+        long count = getLong(8);
+        if (count > Integer.MAX_VALUE) {
+            throw new IOException("Catalog too large: " + count + " songs");
+        }
+        this.size = (int) count;
+        this.indexOffset = getLong(16);
+    }
+
+    public Iterator<Song> createIterator() {
+        return new Iterator<Song>() {
+            private int position;
+
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            public Song next() {
+                return hasNext() ? get(position++) : null;
+            }
+        };
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Lightweight handle; the title is decoded on demand
+    Song get(int index) {
+        return new MappedSong(this, index);
+    }
+
+    // ASCII titles are returned as a view over the mapped bytes, others are decoded
+    CharSequence titleView(int index) {
+        long entry = entry(index);
+        long start = entry & ~CatalogWriter.ASCII_FLAG;
+        long end = entry(index + 1) & ~CatalogWriter.ASCII_FLAG;
+        if ((entry & CatalogWriter.ASCII_FLAG) != 0 && regionOf(start) == regionOf(end - 1)) {
+            return new MappedTitle(regions[regionOf(start)], (int) (start & REGION_MASK), (int) (end - start));
+        }
+        return title(index);
+    }
+
+    String title(int index) {
+        long entry = entry(index);
+        long start = entry & ~CatalogWriter.ASCII_FLAG;
+        long end = entry(index + 1) & ~CatalogWriter.ASCII_FLAG;
+        byte[] bytes = new byte[(int) (end - start)];
+        for (int i = 0; i < bytes.length; ) {
+            long position = start + i;
+            ByteBuffer region = regions[regionOf(position)];
+            int offset = (int) (position & REGION_MASK);
+            int chunk = Math.min(bytes.length - i, region.limit() - offset);
+            region.get(offset, bytes, i, chunk);
+            i += chunk;
+        }
+        return new String(bytes, (entry & CatalogWriter.ASCII_FLAG) != 0
+                ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    private long entry(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Song " + index + " of " + size);
+        }
+        return getLong(indexOffset + 8L * index);
+    }
+
+    // Index entries are 8-byte aligned, so a long never crosses a region boundary
+    private long getLong(long position) {
+        return regions[regionOf(position)].getLong((int) (position & REGION_MASK));
+    }
+
+    private static int regionOf(long position) {
+        return (int) (position >>> REGION_BITS);
+    }
+}
+
+// Song backed by a catalog entry
+class MappedSong extends Song {
+    private final MappedPlaylist playlist;
+    private final int index;
+
+    MappedSong(MappedPlaylist playlist, int index) {
+        super(null);
+        this.playlist = playlist;
+        this.index = index;
+    }
+
+    @Override
+    public String getTitle() {
+        return playlist.title(index);
+    }
+
+    CharSequence getTitleView() {
+        return playlist.titleView(index);
+    }
+}
+
+// Zero-copy view of an ASCII title inside a mapped region
+class MappedTitle implements CharSequence {
+    private final ByteBuffer region;
+    private final int offset;
+    private final int length;
+
+    MappedTitle(ByteBuffer region, int offset, int length) {
+        this.region = region;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (char) region.get(offset + index);
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("[" + start + ", " + end + ") of " + length);
+        }
+        return new MappedTitle(region, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        region.get(offset, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
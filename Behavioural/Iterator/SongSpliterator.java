@@ -0,0 +1,60 @@
+package Behavioural.Iterator;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// Splittable iterator over a range of the playlist array.
+// Splitting halves the range, so every part knows its exact size (SIZED | SUBSIZED)
+// and parallel streams divide the work evenly between fork-join workers.
+class SongSpliterator implements Spliterator<Song> {
+    private final Song[] songs;
+    private int index;
+    private final int fence;
+
+    SongSpliterator(Song[] songs) {
+        this(songs, 0, songs.length);
+    }
+
+    SongSpliterator(Song[] songs, int origin, int fence) {
+        this.songs = songs;
+        this.index = origin;
+        this.fence = fence;
+    }
+
+    public Spliterator<Song> trySplit() {
+        int middle = (index + fence) >>> 1;
+        if (middle <= index) {
+            return null;
+        }
+        Spliterator<Song> prefix = new SongSpliterator(songs, index, middle);
+        index = middle;
+        return prefix;
+    }
+
+    public boolean tryAdvance(Consumer<? super Song> action) {
+        if (index >= fence) {
+            return false;
+        }
+        action.accept(songs[index++]);
+        return true;
+    }
+
+    // Bulk traversal: one tight loop over the array instead of a tryAdvance call per song
+    public void forEachRemaining(Consumer<? super Song> action) {
+        Song[] songs = this.songs;
+        int end = fence;
+        int i = index;
+        index = end;
+        for (; i < end; i++) {
+            action.accept(songs[i]);
+        }
+    }
+
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED;
+    }
+}
@@ -0,0 +1,388 @@
+package Behavioural.Mediator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Request as the tower applies it; a recorded sequence of these replays to the same decisions.
+// A release names the runway and the grant it ends, the sequence number of the granting request.
+class TowerRequest {
+    private final String aircraft;
+    private final Operation operation;
+    private final boolean release;
+    private final int runway;
+    private final long grant;
+
+    TowerRequest(String aircraft, Operation operation) {
+        this(aircraft, operation, false, -1, -1);
+    }
+
+    TowerRequest(String aircraft, Operation operation, int runway, long grant) {
+        this(aircraft, operation, true, runway, grant);
+    }
+
+    private TowerRequest(String aircraft, Operation operation, boolean release, int runway, long grant) {
+        this.aircraft = aircraft;
+        this.operation = operation;
+        this.release = release;
+        this.runway = runway;
+        this.grant = grant;
+    }
+
+    String getAircraft() {
+        return aircraft;
+    }
+
+    Operation getOperation() {
+        return operation;
+    }
+
+    boolean isRelease() {
+        return release;
+    }
+
+    int getRunway() {
+        return runway;
+    }
+
+    long getGrant() {
+        return grant;
+    }
+}
+
+// Runway granted to an aircraft by the request with the given sequence number
+class TowerDecision {
+    private final long sequence;
+    private final String aircraft;
+    private final Operation operation;
+    private final int runway;
+
+    TowerDecision(long sequence, String aircraft, Operation operation, int runway) {
+        this.sequence = sequence;
+        this.aircraft = aircraft;
+        this.operation = operation;
+        this.runway = runway;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TowerDecision)) {
+            return false;
+        }
+        TowerDecision decision = (TowerDecision) other;
+        return sequence == decision.sequence && runway == decision.runway
+                && aircraft.equals(decision.aircraft) && operation == decision.operation;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sequence, aircraft, operation, runway);
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + aircraft + " " + operation + " runway " + runway;
+    }
+}
+
+// Runway state machine with no locking at all; only one thread may call apply(). An aircraft is
+// cleared for any free runway, and when all are busy it joins one FIFO queue served by each release.
+// Decisions depend only on the order of requests, which is what makes replay possible.
+class TowerState<T> {
+    interface GrantListener<T> {
+        void granted(T attachment, TowerRequest request, int runway, long grant);
+    }
+
+    private final String[] occupants;
+    // Sequence number of the request that granted each occupied runway
+    private final long[] grants;
+    private final BitSet free;
+    // Requests that found every runway busy, served first come first served by whichever runway frees up
+    private final ArrayDeque<Waiting<T>> waiting = new ArrayDeque<>();
+    private final List<TowerRequest> requests;
+    private final List<TowerDecision> decisions;
+    private long sequence;
+
+    TowerState(int runways, boolean record) {
+        occupants = new String[runways];
+        grants = new long[runways];
+        free = new BitSet(runways);
+        free.set(0, runways);
+        requests = record ? new ArrayList<>() : null;
+        decisions = record ? new ArrayList<>() : null;
+    }
+
+    void apply(TowerRequest request, T attachment, GrantListener<T> listener) {
+        long current = sequence++;
+        if (requests != null) {
+            requests.add(request);
+        }
+        if (request.isRelease()) {
+            // A stale or repeated release no longer matches the runway's current grant and is ignored
+            int runway = request.getRunway();
+            if (runway < 0 || runway >= occupants.length || occupants[runway] == null
+                    || grants[runway] != request.getGrant()) {
+                return;
+            }
+            occupants[runway] = null;
+            Waiting<T> next = waiting.pollFirst();
+            if (next != null) {
+                grant(current, next.request, next.attachment, runway, listener);
+            } else {
+                free.set(runway);
+            }
+            return;
+        }
+        // The lowest free runway, so the choice depends only on the request order
+        int runway = free.nextSetBit(0);
+        if (runway >= 0) {
+            free.clear(runway);
+            grant(current, request, attachment, runway, listener);
+        } else {
+            waiting.addLast(new Waiting<>(request, attachment));
+        }
+    }
+
+    // Hands over and forgets every request still waiting for a runway
+    void drainWaiting(Consumer<T> action) {
+        Waiting<T> next;
+        while ((next = waiting.pollFirst()) != null) {
+            action.accept(next.attachment);
+        }
+    }
+
+    List<TowerRequest> getRequests() {
+        return requests;
+    }
+
+    List<TowerDecision> getDecisions() {
+        return decisions;
+    }
+
+    private void grant(long current, TowerRequest request, T attachment, int runway, GrantListener<T> listener) {
+        occupants[runway] = request.getAircraft();
+        grants[runway] = current;
+        if (decisions != null) {
+            decisions.add(new TowerDecision(current, request.getAircraft(), request.getOperation(), runway));
+        }
+        listener.granted(attachment, request, runway, current);
+    }
+
+    private static final class Waiting<T> {
+        final TowerRequest request;
+        final T attachment;
+
+        Waiting(TowerRequest request, T attachment) {
+            this.request = request;
+            this.attachment = attachment;
+        }
+    }
+}
+
+// Single-writer mediator: colleagues only enqueue requests on a lock-free queue, and one owner thread
+// applies them in batches to the runway state and then publishes the clearances of the whole batch.
+// Since no other thread touches the state there is no lock and no cache-line ping-pong on it.
+class EventLoopControlTower implements AsyncAirTrafficControl, AutoCloseable {
+    private static final long PARK_NANOS = 50_000;
+
+    private final ConcurrentLinkedQueue<Pending> inbox = new ConcurrentLinkedQueue<>();
+    private final TowerState<Pending> state;
+    private final int batchSize;
+    private final PowerOfTwoHistogram latency = new PowerOfTwoHistogram();
+    private final Thread owner;
+    private volatile boolean running = true;
+    private volatile boolean sleeping;
+
+    EventLoopControlTower(int runways) {
+        this(runways, 256, false);
+    }
+
+    // With record set, every applied request and decision is kept for replay()
+    EventLoopControlTower(int runways, int batchSize, boolean record) {
+        if (runways < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Runways and batch size must be positive");
+        }
+        this.state = new TowerState<>(runways, record);
+        this.batchSize = batchSize;
+        this.owner = new Thread(this::run, "control-tower");
+        owner.start();
+    }
+
+    public void requestLanding(Aircraft aircraft) {
+        Clearance clearance = requestLandingAsync(aircraft).join();
+        System.out.println(aircraft.getName() + " is clear to land on runway " + clearance.getRunway() + ".");
+        clearance.release();
+    }
+
+    public void requestTakeoff(Aircraft aircraft) {
+        Clearance clearance = requestTakeoffAsync(aircraft).join();
+        System.out.println(aircraft.getName() + " is cleared for takeoff on runway " + clearance.getRunway() + ".");
+        clearance.release();
+    }
+
+    // Futures are completed on the owner thread; chain slow work with the *Async variants
+    public CompletableFuture<Clearance> requestLandingAsync(Aircraft aircraft) {
+        return submit(aircraft, new TowerRequest(aircraft.getName(), Operation.LANDING)).future;
+    }
+
+    public CompletableFuture<Clearance> requestTakeoffAsync(Aircraft aircraft) {
+        return submit(aircraft, new TowerRequest(aircraft.getName(), Operation.TAKEOFF)).future;
+    }
+
+    // Request-to-clearance latency, recorded by the owner thread and readable at any time
+    PowerOfTwoHistogram latency() {
+        return latency;
+    }
+
+    // Applies everything already submitted, then stops the owner thread; call once colleagues are done.
+    // Requests still waiting for a runway, or racing close past the owner's last poll, fail instead of hanging.
+    public void close() {
+        running = false;
+        LockSupport.unpark(owner);
+        try {
+            owner.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        Pending late;
+        while ((late = inbox.poll()) != null) {
+            late.future.completeExceptionally(new IllegalStateException("Control tower is closed"));
+        }
+    }
+
+    List<TowerRequest> recordedRequests() {
+        checkStopped();
+        return state.getRequests() == null ? List.of() : List.copyOf(state.getRequests());
+    }
+
+    List<TowerDecision> decisions() {
+        checkStopped();
+        return state.getDecisions() == null ? List.of() : List.copyOf(state.getDecisions());
+    }
+
+    // Re-applies recorded requests without threads; yields the decisions the live tower made
+    static List<TowerDecision> replay(int runways, List<TowerRequest> requests) {
+        TowerState<Void> replayed = new TowerState<>(runways, true);
+        for (TowerRequest request : requests) {
+            replayed.apply(request, null, (attachment, granted, runway, grant) -> {
+            });
+        }
+        return replayed.getDecisions();
+    }
+
+    private void release(Clearance clearance, long grant) {
+        submit(clearance.getAircraft(), new TowerRequest(clearance.getAircraft().getName(),
+                clearance.getOperation(), clearance.getRunway(), grant));
+    }
+
+    private Pending submit(Aircraft aircraft, TowerRequest request) {
+        if (!running) {
+            throw new IllegalStateException("Control tower is closed");
+        }
+        Pending pending = new Pending(aircraft, request);
+        inbox.offer(pending);
+        if (sleeping) {
+            LockSupport.unpark(owner);
+        }
+        // The owner may have stopped between the check and the offer; whoever removes the request
+        // first, this thread or close(), fails it
+        if (!running && inbox.remove(pending)) {
+            pending.future.completeExceptionally(new IllegalStateException("Control tower is closed"));
+        }
+        return pending;
+    }
+
+    private void checkStopped() {
+        if (owner.isAlive()) {
+            throw new IllegalStateException("Close the tower before reading its log");
+        }
+    }
+
+    private void run() {
+        Pending[] granted = new Pending[batchSize];
+        Clearance[] clearances = new Clearance[batchSize];
+        int[] count = new int[1];
+        TowerState.GrantListener<Pending> listener = (pending, request, runway, grant) -> {
+            granted[count[0]] = pending;
+            clearances[count[0]++] = new Clearance(pending.aircraft, request.getOperation(), runway,
+                    pending.submittedNanos, clearance -> release(clearance, grant));
+        };
+        while (running || !inbox.isEmpty()) {
+            int applied = 0;
+            Pending pending;
+            while (applied < batchSize && (pending = inbox.poll()) != null) {
+                state.apply(pending.request, pending, listener);
+                applied++;
+            }
+            // Each request grants at most one runway, so a batch never overflows the arrays
+            for (int i = 0; i < count[0]; i++) {
+                latency.record(clearances[i].getWaitNanos());
+                granted[i].future.complete(clearances[i]);
+                granted[i] = null;
+                clearances[i] = null;
+            }
+            count[0] = 0;
+            if (applied == 0) {
+                sleeping = true;
+                if (inbox.isEmpty() && running) {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                sleeping = false;
+            }
+        }
+        state.drainWaiting(pending ->
+                pending.future.completeExceptionally(new IllegalStateException("Control tower is closed")));
+    }
+
+    private static final class Pending {
+        final Aircraft aircraft;
+        final TowerRequest request;
+        final long submittedNanos = System.nanoTime();
+        final CompletableFuture<Clearance> future = new CompletableFuture<>();
+
+        Pending(Aircraft aircraft, TowerRequest request) {
+            this.aircraft = aircraft;
+            this.request = request;
+        }
+    }
+}
+
+// Coarse histogram with one bucket per power of two; written by a single thread, read by any
+class PowerOfTwoHistogram {
+    private final AtomicLongArray counts = new AtomicLongArray(64);
+
+    void record(long value) {
+        int bucket = 64 - Long.numberOfLeadingZeros(Math.max(0, value));
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+    }
+
+    long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    // Upper bound of the bucket holding the percentile
+    long percentile(double percentile) {
+        long total = count();
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return i == 0 ? 0 : (1L << i) - 1;
+            }
+        }
+        return total == 0 ? 0 : Long.MAX_VALUE;
+    }
+}
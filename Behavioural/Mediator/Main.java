@@ -1,5 +1,7 @@
 package Behavioural.Mediator;
 
+import java.util.List;
+
 // Mediator interface
 interface AirTrafficControl {
     void requestLanding(Aircraft aircraft);
@@ -51,5 +53,19 @@ public class Main {
 
         aircraft1.requestLanding();
         aircraft2.requestTakeoff();
+
+        // Concurrent tower with two runways; an aircraft is cleared for whichever is free
+        AirTrafficControl runwayTower = new RunwayControlTower(2);
+        new Aircraft("Flight 789", runwayTower).requestLanding();
+        new Aircraft("Flight 012", runwayTower).requestTakeoff();
+
+        // Event-loop tower records its requests so the decisions can be replayed
+        EventLoopControlTower eventLoopTower = new EventLoopControlTower(2, 64, true);
+        try (eventLoopTower) {
+            new Aircraft("Flight 345", eventLoopTower).requestLanding();
+            new Aircraft("Flight 678", eventLoopTower).requestTakeoff();
+        }
+        List<TowerDecision> replayed = EventLoopControlTower.replay(2, eventLoopTower.recordedRequests());
+        System.out.println("Replay matches: " + replayed.equals(eventLoopTower.decisions()));
     }
 }
\ No newline at end of file
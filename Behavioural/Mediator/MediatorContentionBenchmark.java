@@ -0,0 +1,72 @@
+package Behavioural.Mediator;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// 10k aircraft repeatedly landing and taking off against towers with more and more runways,
+// comparing the free-runway bitmap tower with the single-writer event loop.
+// Each aircraft runs on a virtual thread when the JDK has them (21+), otherwise on a thread pool.
+public class MediatorContentionBenchmark {
+    private static final int AIRCRAFT = 10_000;
+    private static final int ROUNDS_PER_AIRCRAFT = 20;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%d cores%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-11s %8s %16s %14s%n", "tower", "runways", "clearances/s", "avg wait us");
+        for (int runways : new int[]{1, 4, 16, 64}) {
+            run("bitmap", runways, new RunwayControlTower(runways));
+            try (EventLoopControlTower eventLoop = new EventLoopControlTower(runways)) {
+                run("event loop", runways, eventLoop);
+                System.out.printf("%-11s %8s p50 %d us, p99 %d us%n", "", "", eventLoop.latency().percentile(50) / 1000,
+                        eventLoop.latency().percentile(99) / 1000);
+            }
+        }
+    }
+
+    private static void run(String name, int runwayCount, AsyncAirTrafficControl tower) throws Exception {
+        Aircraft[] fleet = new Aircraft[AIRCRAFT];
+        for (int i = 0; i < AIRCRAFT; i++) {
+            fleet[i] = new Aircraft("Flight " + i, tower);
+        }
+        long[] waits = new long[AIRCRAFT];
+        CountDownLatch done = new CountDownLatch(AIRCRAFT);
+        long start = System.nanoTime();
+        ExecutorService executor = newExecutor();
+        try {
+            for (int i = 0; i < AIRCRAFT; i++) {
+                int id = i;
+                executor.execute(() -> {
+                    for (int round = 0; round < ROUNDS_PER_AIRCRAFT; round++) {
+                        Clearance landing = tower.requestLandingAsync(fleet[id]).join();
+                        waits[id] += landing.getWaitNanos();
+                        landing.release();
+                        Clearance takeoff = tower.requestTakeoffAsync(fleet[id]).join();
+                        waits[id] += takeoff.getWaitNanos();
+                        takeoff.release();
+                    }
+                    done.countDown();
+                });
+            }
+            done.await();
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long totalWait = 0;
+        for (long wait : waits) {
+            totalWait += wait;
+        }
+        long clearances = 2L * AIRCRAFT * ROUNDS_PER_AIRCRAFT;
+        System.out.printf("%-11s %8d %16.0f %14.1f%n", name, runwayCount, clearances / seconds,
+                totalWait / 1e3 / clearances);
+    }
+
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package Behavioural.Mediator;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// What a clearance is for
+enum Operation {
+    LANDING,
+    TAKEOFF
+}
+
+// Mediator that hands out clearances as futures instead of blocking the colleague
+interface AsyncAirTrafficControl extends AirTrafficControl {
+    CompletableFuture<Clearance> requestLandingAsync(Aircraft aircraft);
+
+    CompletableFuture<Clearance> requestTakeoffAsync(Aircraft aircraft);
+}
+
+// Permission to use one runway; the holder must release it when the runway is clear again
+class Clearance {
+    private final Aircraft aircraft;
+    private final Operation operation;
+    private final int runway;
+    private final long requestedNanos;
+    private final long grantedNanos;
+    private final Consumer<Clearance> releaser;
+
+    Clearance(Aircraft aircraft, Operation operation, int runway, long requestedNanos, Consumer<Clearance> releaser) {
+        this.aircraft = aircraft;
+        this.operation = operation;
+        this.runway = runway;
+        this.requestedNanos = requestedNanos;
+        this.grantedNanos = System.nanoTime();
+        this.releaser = releaser;
+    }
+
+    Aircraft getAircraft() {
+        return aircraft;
+    }
+
+    Operation getOperation() {
+        return operation;
+    }
+
+    int getRunway() {
+        return runway;
+    }
+
+    // Time spent waiting for the runway
+    long getWaitNanos() {
+        return grantedNanos - requestedNanos;
+    }
+
+    // Hands the runway back to the tower that granted it
+    void release() {
+        releaser.accept(this);
+    }
+}
+
+// Concurrent mediator: an aircraft is cleared for any free runway. Free runways are bits in a bitmap
+// claimed with a CAS, so requests that find a free runway never lock. When every runway is busy a
+// request joins the FIFO queue of its thread's stripe; stripes have their own locks, so waiting
+// aircraft on different cores do not contend. A released runway serves its home stripe first and
+// steals from the others when that one is empty. Order is first come first served within a stripe;
+// across stripes it is only approximately so, which is the price of having no global lock.
+// Clearances are handed out as futures that complete outside the stripe locks.
+class RunwayControlTower implements AsyncAirTrafficControl {
+    private final AtomicLongArray free;
+    private final AtomicReferenceArray<Clearance> active;
+    private final Stripe[] stripes;
+    private final LongAdder granted = new LongAdder();
+    private final Consumer<Clearance> releaser = this::release;
+
+    // One stripe per core, but never more stripes than runways, so every stripe is some runway's home
+    RunwayControlTower(int runwayCount) {
+        this(runwayCount, Math.min(runwayCount, Runtime.getRuntime().availableProcessors()));
+    }
+
+    RunwayControlTower(int runwayCount, int stripeCount) {
+        if (runwayCount < 1 || stripeCount < 1) {
+            throw new IllegalArgumentException("A tower needs at least one runway and one stripe");
+        }
+        this.free = new AtomicLongArray((runwayCount + 63) >>> 6);
+        for (int runway = 0; runway < runwayCount; runway++) {
+            free.set(runway >>> 6, free.get(runway >>> 6) | 1L << runway);
+        }
+        this.active = new AtomicReferenceArray<>(runwayCount);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    // Blocking form of the mediator interface: waits for the runway, reports, frees it again
+    public void requestLanding(Aircraft aircraft) {
+        Clearance clearance = requestLandingAsync(aircraft).join();
+        System.out.println(aircraft.getName() + " is clear to land on runway " + clearance.getRunway() + ".");
+        clearance.release();
+    }
+
+    public void requestTakeoff(Aircraft aircraft) {
+        Clearance clearance = requestTakeoffAsync(aircraft).join();
+        System.out.println(aircraft.getName() + " is cleared for takeoff on runway " + clearance.getRunway() + ".");
+        clearance.release();
+    }
+
+    public CompletableFuture<Clearance> requestLandingAsync(Aircraft aircraft) {
+        return request(aircraft, Operation.LANDING);
+    }
+
+    public CompletableFuture<Clearance> requestTakeoffAsync(Aircraft aircraft) {
+        return request(aircraft, Operation.TAKEOFF);
+    }
+
+    long grantedClearances() {
+        return granted.sum();
+    }
+
+    private CompletableFuture<Clearance> request(Aircraft aircraft, Operation operation) {
+        Pending pending = new Pending(aircraft, operation);
+        // A thread keeps to one stripe, so its own requests are served in order
+        int home = Math.floorMod(System.identityHashCode(Thread.currentThread()), stripes.length);
+        Stripe stripe = stripes[home];
+        // Aircraft already queued in this stripe keep their turn: nobody claims a free runway past them
+        if (stripe.count.get() == 0) {
+            int runway = claim();
+            if (runway >= 0) {
+                pending.future.complete(grant(pending, runway));
+                return pending.future;
+            }
+        }
+        stripe.add(pending);
+        // A runway may have been freed between the failed claim and joining the queue
+        dispatch(home);
+        return pending.future;
+    }
+
+    private void release(Clearance clearance) {
+        int runway = clearance.getRunway();
+        if (!active.compareAndSet(runway, clearance, null)) {
+            throw new IllegalStateException("Clearance is not active on runway " + runway);
+        }
+        markFree(runway);
+        dispatch(runway % stripes.length);
+    }
+
+    // Hands free runways to queued aircraft, starting with the given stripe and stealing from the
+    // others, until runways or waiting aircraft run out. Freeing a runway and joining a queue both end
+    // here, and each checks the other's state after publishing its own, so a free runway never sits
+    // next to a waiting aircraft.
+    private void dispatch(int first) {
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[(first + i) % stripes.length];
+            while (stripe.count.get() > 0) {
+                int runway = claim();
+                if (runway < 0) {
+                    return;
+                }
+                Pending next = stripe.poll();
+                if (next == null) {
+                    // Another dispatcher emptied this stripe; free the runway and look at it once more,
+                    // in case an aircraft joined it and missed the runway while we held it
+                    markFree(runway);
+                    continue;
+                }
+                next.future.complete(grant(next, runway));
+            }
+        }
+    }
+
+    // Clears the bit of some free runway and returns its number, or -1 if all are busy.
+    // The search starts at a random word so concurrent requests spread over the bitmap.
+    private int claim() {
+        int words = free.length();
+        int start = words == 1 ? 0 : ThreadLocalRandom.current().nextInt(words);
+        for (int i = 0; i < words; i++) {
+            int word = (start + i) % words;
+            long current = free.get(word);
+            while (current != 0) {
+                long bit = Long.lowestOneBit(current);
+                if (free.compareAndSet(word, current, current & ~bit)) {
+                    return (word << 6) + Long.numberOfTrailingZeros(bit);
+                }
+                current = free.get(word);
+            }
+        }
+        return -1;
+    }
+
+    private void markFree(int runway) {
+        int word = runway >>> 6;
+        long current = free.get(word);
+        while (!free.compareAndSet(word, current, current | 1L << runway)) {
+            current = free.get(word);
+        }
+    }
+
+    private Clearance grant(Pending pending, int runway) {
+        Clearance clearance = new Clearance(pending.aircraft, pending.operation, runway, pending.requestedNanos,
+                releaser);
+        active.set(runway, clearance);
+        granted.increment();
+        return clearance;
+    }
+
+    // FIFO of aircraft waiting for a runway, with its own lock
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<Pending> waiting = new ArrayDeque<>();
+        // Size of the queue, readable without the lock
+        final AtomicInteger count = new AtomicInteger();
+
+        void add(Pending pending) {
+            lock.lock();
+            try {
+                waiting.addLast(pending);
+                count.incrementAndGet();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Pending poll() {
+            lock.lock();
+            try {
+                Pending next = waiting.pollFirst();
+                if (next != null) {
+                    count.decrementAndGet();
+                }
+                return next;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Pending {
+        final Aircraft aircraft;
+        final Operation operation;
+        final long requestedNanos = System.nanoTime();
+        final CompletableFuture<Clearance> future = new CompletableFuture<>();
+
+        Pending(Aircraft aircraft, Operation operation) {
+            this.aircraft = aircraft;
+            this.operation = operation;
+        }
+    }
+}
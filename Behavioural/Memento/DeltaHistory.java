@@ -0,0 +1,112 @@
+package Behavioural.Memento;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Difference between two texts as a single replaced range: the common prefix and suffix are kept,
+// [start, start + removed) of the old text is replaced by inserted
+class TextDelta {
+    private final int start;
+    private final int removed;
+    private final String inserted;
+
+    private TextDelta(int start, int removed, String inserted) {
+        this.start = start;
+        this.removed = removed;
+        this.inserted = inserted;
+    }
+
+    static TextDelta between(String before, String after) {
+        int limit = Math.min(before.length(), after.length());
+        int prefix = 0;
+        while (prefix < limit && before.charAt(prefix) == after.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < limit - prefix
+                && before.charAt(before.length() - 1 - suffix) == after.charAt(after.length() - 1 - suffix)) {
+            suffix++;
+        }
+        return new TextDelta(prefix, before.length() - prefix - suffix,
+                after.substring(prefix, after.length() - suffix));
+    }
+
+    // Edits the text in place, so a chain of deltas shares one buffer
+    void applyTo(StringBuilder text) {
+        text.replace(start, start + removed, inserted);
+    }
+
+    long sizeInBytes() {
+        return 24 + Memento.sizeOf(inserted);
+    }
+}
+
+// Caretaker storing each memento as a delta against the previous one, with a full keyframe every
+// keyframeInterval snapshots. Memory grows with the size of the edits rather than the document,
+// and get() rebuilds a state from its keyframe by applying fewer than keyframeInterval deltas.
+class DeltaHistory implements History {
+    private final int keyframeInterval;
+    private final List<Snapshot> snapshots = new ArrayList<>();
+    private String last;
+    private long retainedBytes;
+
+    DeltaHistory(int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be positive");
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    public void save(Memento memento) {
+        String state = memento.getState();
+        Snapshot snapshot;
+        // Null states cannot be diffed, so they and their successors are stored whole
+        if (snapshots.size() % keyframeInterval == 0 || state == null || last == null) {
+            snapshot = new Snapshot(state, null);
+        } else {
+            snapshot = new Snapshot(null, TextDelta.between(last, state));
+        }
+        snapshots.add(snapshot);
+        retainedBytes += snapshot.sizeInBytes();
+        last = state;
+    }
+
+    public Memento get(int index) {
+        int keyframe = index;
+        while (snapshots.get(keyframe).delta != null) {
+            keyframe--;
+        }
+        String state = snapshots.get(keyframe).keyframe;
+        if (keyframe == index) {
+            return new Memento(state);
+        }
+        StringBuilder text = new StringBuilder(state);
+        for (int i = keyframe + 1; i <= index; i++) {
+            snapshots.get(i).delta.applyTo(text);
+        }
+        return new Memento(text.toString());
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    public long retainedBytes() {
+        return retainedBytes;
+    }
+
+    // Either a whole state (possibly null) or a delta from the previous snapshot
+    private static final class Snapshot {
+        final String keyframe;
+        final TextDelta delta;
+
+        Snapshot(String keyframe, TextDelta delta) {
+            this.keyframe = keyframe;
+            this.delta = delta;
+        }
+
+        long sizeInBytes() {
+            return 24 + (delta == null ? Memento.sizeOf(keyframe) : delta.sizeInBytes());
+        }
+    }
+}
@@ -1,60 +1,134 @@
 package Behavioural.Memento;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
-// Originator
+// Originator; the content is a rope, so edits and snapshots share structure instead of copying text
 class TextEditor {
-    private String content;
+    private Rope content;
 
     String getContent() {
+        return content == null ? null : content.toString();
+    }
+
+    // Live text without building a String
+    CharSequence getText() {
         return content;
     }
 
     void setContent(String content) {
-        this.content = content;
+        this.content = content == null ? null : Rope.of(content);
+    }
+
+    void insert(int index, String text) {
+        content = text().insert(index, text);
     }
 
+    void delete(int from, int to) {
+        content = text().delete(from, to);
+    }
+
+    // O(1): the memento holds the current rope, which later edits never modify
     Memento save() {
         return new Memento(content);
     }
 
     void restore(Memento memento) {
-        content = memento.getState();
+        content = memento.getRope();
+    }
+
+    private Rope text() {
+        return content == null ? Rope.of("") : content;
     }
 }
 
-// Memento
+// Memento; holds either a plain string or a rope shared with the editor, and never changes
 class Memento {
-    private String state;
+    private final Rope rope;
+    private final String state;
 
     Memento(String state) {
+        this.rope = null;
         this.state = state;
     }
 
+    Memento(Rope rope) {
+        this.rope = rope;
+        this.state = null;
+    }
+
+    // A rope-backed state is flattened on every call; callers needing it twice keep the String
     String getState() {
-        return state;
+        return rope != null ? rope.toString() : state;
+    }
+
+    Rope getRope() {
+        return rope != null || state == null ? rope : Rope.of(state);
+    }
+
+    // Upper bound: rope nodes shared with other mementos are counted by each of them
+    long sizeInBytes() {
+        return rope != null ? rope.sizeInBytes() : sizeOf(state);
+    }
+
+    // Bytes not already in counted, so a history can count structure shared between mementos once
+    long sizeInBytes(Set<Rope> counted) {
+        return rope != null ? rope.sizeInBytes(counted) : sizeOf(state);
+    }
+
+    // Rough heap footprint of a string: header, length fields and two bytes per char
+    static long sizeOf(String text) {
+        return text == null ? 0 : 40 + 2L * text.length();
     }
 }
 
 // Caretaker
-class History {
+interface History {
+    void save(Memento memento);
+
+    Memento get(int index);
+
+    int size();
+
+    // Approximate heap held by the saved states
+    long retainedBytes();
+}
+
+// Caretaker keeping every memento as saved
+class FullHistory implements History {
     private List<Memento> mementos = new ArrayList<>();
+    // Rope nodes already in retainedBytes; the mementos keep them alive anyway
+    private final Set<Rope> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long retainedBytes;
 
-    void save(Memento memento) {
+    public void save(Memento memento) {
         mementos.add(memento);
+        retainedBytes += memento.sizeInBytes(counted);
     }
 
-    Memento get(int index) {
+    public Memento get(int index) {
         return mementos.get(index);
     }
+
+    public int size() {
+        return mementos.size();
+    }
+
+    public long retainedBytes() {
+        return retainedBytes;
+    }
 }
 
 // Client code
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         TextEditor textEditor = new TextEditor();
-        History history = new History();
+        History history = new FullHistory();
 
         textEditor.setContent("First text");
         history.save(textEditor.save());
@@ -70,5 +144,33 @@ public class Main {
         textEditor.restore(history.get(1)); // Revert to the second state
 
         System.out.println("Content after restoring: " + textEditor.getContent());
+
+        // Delta history stores diffs between saves and a full keyframe every few snapshots
+        History deltaHistory = new DeltaHistory(4);
+        textEditor.setContent("The quick brown fox");
+        for (String word : new String[]{"jumps", "over", "the", "lazy", "dog"}) {
+            textEditor.setContent(textEditor.getContent() + " " + word);
+            deltaHistory.save(textEditor.save());
+        }
+        textEditor.restore(deltaHistory.get(2));
+        System.out.println("Content after restoring delta: " + textEditor.getContent());
+        System.out.println("Bytes per snapshot: " + deltaHistory.retainedBytes() / deltaHistory.size());
+
+        // Spilling history keeps a small window on the heap and the rest in segment files
+        try (SpillingHistory spillingHistory = new SpillingHistory(Files.createTempDirectory("history"), 64)) {
+            for (int i = 0; i < deltaHistory.size(); i++) {
+                spillingHistory.save(deltaHistory.get(i));
+            }
+            textEditor.restore(spillingHistory.get(0));
+            System.out.println("Content after restoring spilled: " + textEditor.getContent());
+        }
+
+        // Rope edits: the saved memento keeps the old text while the editor moves on
+        Memento beforeEdit = textEditor.save();
+        textEditor.insert(4, "very ");
+        textEditor.delete(0, 4);
+        System.out.println("Edited content: " + textEditor.getContent());
+        textEditor.restore(beforeEdit);
+        System.out.println("Content after undoing edits: " + textEditor.getContent());
     }
 }
\ No newline at end of file
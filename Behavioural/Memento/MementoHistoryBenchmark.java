@@ -0,0 +1,72 @@
+package Behavioural.Memento;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+// Bytes per snapshot and random-access restore time for a 256 KB document edited a few words at a time,
+// keeping full copies, deltas with different keyframe intervals, or a 4 MB window spilling to disk
+public class MementoHistoryBenchmark {
+    private static final int DOCUMENT_CHARS = 256 * 1024;
+    private static final int EDITS = 400;
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%-16s %18s %16s%n", "history", "bytes/snapshot", "get() us");
+        run("full", new FullHistory());
+        for (int interval : new int[]{8, 32, 128}) {
+            run("delta every " + interval, new DeltaHistory(interval));
+        }
+        try (SpillingHistory spilling = new SpillingHistory(Files.createTempDirectory("history"), 4 << 20,
+                16 << 20, true)) {
+            run("spilling 4 MB", spilling);
+            System.out.printf("%-16s %18d on disk%n", "", spilling.diskBytes() / spilling.size());
+        }
+    }
+
+    private static void run(String name, History history) {
+        Random random = new Random(14);
+        TextEditor editor = new TextEditor();
+        editor.setContent(document(random));
+        String[] expected = new String[EDITS];
+        for (int i = 0; i < EDITS; i++) {
+            editor.setContent(edit(editor.getContent(), random));
+            expected[i] = editor.getContent();
+            history.save(editor.save());
+        }
+
+        long start = System.nanoTime();
+        int lookups = 2000;
+        for (int i = 0; i < lookups; i++) {
+            int index = random.nextInt(EDITS);
+            if (!history.get(index).getState().equals(expected[index])) {
+                throw new IllegalStateException(name + " restored the wrong state " + index);
+            }
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / lookups;
+        System.out.printf("%-16s %18d %16.1f%n", name, history.retainedBytes() / history.size(), micros);
+    }
+
+    private static String document(Random random) {
+        StringBuilder text = new StringBuilder(DOCUMENT_CHARS);
+        while (text.length() < DOCUMENT_CHARS) {
+            text.append((char) ('a' + random.nextInt(26)));
+            if (random.nextInt(6) == 0) {
+                text.append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    // Inserts, deletes or retypes a few characters somewhere in the text
+    private static String edit(String text, Random random) {
+        int at = random.nextInt(text.length() - 16);
+        switch (random.nextInt(3)) {
+            case 0:
+                return text.substring(0, at) + "edit " + text.substring(at);
+            case 1:
+                return text.substring(0, at) + text.substring(at + 1 + random.nextInt(12));
+            default:
+                return text.substring(0, at) + "retyped" + text.substring(at + 7);
+        }
+    }
+}
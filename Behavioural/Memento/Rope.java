@@ -0,0 +1,207 @@
+package Behavioural.Memento;
+
+import java.util.Set;
+
+// Immutable text stored as a height-balanced (AVL) tree of string chunks.
+// Editing builds a new root that shares every untouched subtree with the old one, so an insert or
+// delete costs O(log n) time and allocates only the nodes along the edited path, and keeping the
+// old version around (a memento) costs nothing.
+final class Rope implements CharSequence {
+    static final int LEAF_CHARS = 1024;
+    private static final Rope EMPTY = new Rope("");
+
+    // Leaves hold a chunk, inner nodes hold two children
+    private final String chunk;
+    private final Rope left;
+    private final Rope right;
+    private final int length;
+    private final int height;
+    private final long bytes;
+
+    private Rope(String chunk) {
+        this.chunk = chunk;
+        this.left = null;
+        this.right = null;
+        this.length = chunk.length();
+        this.height = 0;
+        this.bytes = 32 + Memento.sizeOf(chunk);
+    }
+
+    private Rope(Rope left, Rope right) {
+        this.chunk = null;
+        this.left = left;
+        this.right = right;
+        this.length = Math.addExact(left.length, right.length);
+        this.height = 1 + Math.max(left.height, right.height);
+        this.bytes = 32 + left.bytes + right.bytes;
+    }
+
+    static Rope of(CharSequence text) {
+        return text.length() == 0 ? EMPTY : build(text, 0, text.length());
+    }
+
+    // Splits on chunk boundaries so every leaf but the last is full and the tree is balanced
+    private static Rope build(CharSequence text, int from, int to) {
+        if (to - from <= LEAF_CHARS) {
+            return new Rope(text.subSequence(from, to).toString());
+        }
+        int leaves = (to - from + LEAF_CHARS - 1) / LEAF_CHARS;
+        int middle = from + leaves / 2 * LEAF_CHARS;
+        return new Rope(build(text, from, middle), build(text, middle, to));
+    }
+
+    Rope insert(int index, CharSequence text) {
+        return replace(index, index, text);
+    }
+
+    Rope delete(int from, int to) {
+        return replace(from, to, "");
+    }
+
+    // Replaces [from, to) with text
+    Rope replace(int from, int to, CharSequence text) {
+        checkRange(from, to);
+        return join(join(prefix(this, from), of(text)), suffix(this, to));
+    }
+
+    Rope concat(Rope other) {
+        return join(this, other);
+    }
+
+    // Heap held by this version, counting shared subtrees once per version that reaches them
+    long sizeInBytes() {
+        return bytes;
+    }
+
+    // Heap of the nodes not yet in counted, adding them to it; a counted node's subtree is skipped
+    // whole, so measuring an edited version visits only the nodes the edit allocated
+    long sizeInBytes(Set<Rope> counted) {
+        if (!counted.add(this)) {
+            return 0;
+        }
+        return chunk != null ? bytes : 32 + left.sizeInBytes(counted) + right.sizeInBytes(counted);
+    }
+
+    int height() {
+        return height;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " of " + length);
+        }
+        Rope node = this;
+        while (node.chunk == null) {
+            if (index < node.left.length) {
+                node = node.left;
+            } else {
+                index -= node.left.length;
+                node = node.right;
+            }
+        }
+        return node.chunk.charAt(index);
+    }
+
+    public Rope subSequence(int start, int end) {
+        checkRange(start, end);
+        return suffix(prefix(this, end), start);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(length);
+        appendTo(text);
+        return text.toString();
+    }
+
+    private void appendTo(StringBuilder text) {
+        if (chunk != null) {
+            text.append(chunk);
+        } else {
+            left.appendTo(text);
+            right.appendTo(text);
+        }
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("[" + from + ", " + to + ") of " + length);
+        }
+    }
+
+    // Characters [0, end)
+    private static Rope prefix(Rope rope, int end) {
+        if (end == rope.length) {
+            return rope;
+        }
+        if (end == 0) {
+            return EMPTY;
+        }
+        if (rope.chunk != null) {
+            return new Rope(rope.chunk.substring(0, end));
+        }
+        if (end <= rope.left.length) {
+            return prefix(rope.left, end);
+        }
+        return join(rope.left, prefix(rope.right, end - rope.left.length));
+    }
+
+    // Characters [start, length)
+    private static Rope suffix(Rope rope, int start) {
+        if (start == 0) {
+            return rope;
+        }
+        if (start == rope.length) {
+            return EMPTY;
+        }
+        if (rope.chunk != null) {
+            return new Rope(rope.chunk.substring(start));
+        }
+        if (start >= rope.left.length) {
+            return suffix(rope.right, start - rope.left.length);
+        }
+        return join(suffix(rope.left, start), rope.right);
+    }
+
+    // Concatenation that keeps the tree balanced: descends the taller tree's spine until the
+    // heights match, then rebalances on the way back up. Costs O(|height(a) - height(b)| + 1).
+    private static Rope join(Rope a, Rope b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        if (a.chunk != null && b.chunk != null && a.length + b.length <= LEAF_CHARS) {
+            return new Rope(a.chunk + b.chunk);
+        }
+        if (a.height > b.height + 1) {
+            return balance(a.left, join(a.right, b));
+        }
+        if (b.height > a.height + 1) {
+            return balance(join(a, b.left), b.right);
+        }
+        return new Rope(a, b);
+    }
+
+    // Node over two balanced subtrees whose heights differ by at most two
+    private static Rope balance(Rope left, Rope right) {
+        if (left.height > right.height + 1) {
+            if (left.left.height >= left.right.height) {
+                return new Rope(left.left, new Rope(left.right, right));
+            }
+            return new Rope(new Rope(left.left, left.right.left), new Rope(left.right.right, right));
+        }
+        if (right.height > left.height + 1) {
+            if (right.right.height >= right.left.height) {
+                return new Rope(new Rope(left, right.left), right.right);
+            }
+            return new Rope(new Rope(left, right.left.left), new Rope(right.left.right, right.right));
+        }
+        return new Rope(left, right);
+    }
+}
@@ -0,0 +1,61 @@
+package Behavioural.Memento;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+// Edit followed by save() on a 100 MB document: time and bytes allocated per step for the rope-backed
+// editor, against rebuilding a String for every edit
+public class RopeEditorBenchmark {
+    private static final int DOCUMENT_CHARS = 100 << 20;
+    private static final int EDITS = 200_000;
+    private static final int STRING_EDITS = 20;
+
+    public static void main(String[] args) {
+        Random random = new Random(16);
+        StringBuilder document = new StringBuilder(DOCUMENT_CHARS);
+        while (document.length() < DOCUMENT_CHARS) {
+            document.append((char) ('a' + random.nextInt(26)));
+        }
+        TextEditor editor = new TextEditor();
+        editor.setContent(document.toString());
+        document = null;
+
+        Memento[] mementos = new Memento[EDITS];
+        for (int round = 1; round <= 3; round++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < EDITS; i++) {
+                int length = editor.getText().length();
+                int at = random.nextInt(length - 16);
+                if (random.nextBoolean()) {
+                    editor.insert(at, "edit");
+                } else {
+                    editor.delete(at, at + 1 + random.nextInt(8));
+                }
+                mementos[i] = editor.save();
+            }
+            double micros = (System.nanoTime() - start) / 1e3 / EDITS;
+            System.out.printf("rope   round %d: %.2f us and %d bytes per edit + save%n",
+                    round, micros, (allocatedBytes() - allocated) / EDITS);
+        }
+
+        String text = editor.getContent();
+        mementos = null;
+        editor = null;
+        Memento last = null;
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < STRING_EDITS; i++) {
+            int at = random.nextInt(text.length() - 16);
+            text = text.substring(0, at) + "edit" + text.substring(at);
+            last = new Memento(text);
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / STRING_EDITS;
+        System.out.printf("string:         %.0f us and %d bytes per edit + save (%d chars)%n",
+                micros, (allocatedBytes() - allocated) / STRING_EDITS, last.getState().length());
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,312 @@
+package Behavioural.Memento;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Caretaker that keeps only a bounded window of mementos on the heap.
+// Every save is appended to a memory-mapped segment file and indexed by (segment, ordinal), so
+// evicting a memento costs nothing and get() is one array lookup plus one read of the mapping.
+// The window is least-recently-used and sized in bytes. Full segments are compressed record by
+// record on a background thread; the index stays valid because ordinals do not change.
+// Segment files are deleted on close().
+class SpillingHistory implements History, AutoCloseable {
+    private static final byte NULL_STATE = 0;
+    private static final byte TEXT_STATE = 1;
+
+    private final Path directory;
+    private final long windowBytes;
+    private final int segmentBytes;
+    private final ExecutorService compressor;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Integer, Memento> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final Inflater inflater = new Inflater();
+    // Entry i is (segment id << 32 | ordinal within the segment)
+    private long[] index = new long[1024];
+    private int size;
+    private long cachedBytes;
+    private Segment active;
+
+    SpillingHistory(Path directory, long windowBytes) throws IOException {
+        this(directory, windowBytes, 64 << 20, true);
+    }
+
+    SpillingHistory(Path directory, long windowBytes, int segmentBytes, boolean compress) throws IOException {
+        if (windowBytes < 0 || segmentBytes < 1) {
+            throw new IllegalArgumentException("Window must not be negative and segments must not be empty");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.windowBytes = windowBytes;
+        this.segmentBytes = segmentBytes;
+        this.compressor = compress ? Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "history-compressor");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public void save(Memento memento) {
+        String state = memento.getState();
+        byte[] record = encode(state);
+        try {
+            if (active == null || !active.fits(record.length)) {
+                seal();
+                active = Segment.create(directory, segments.size(), Math.max(segmentBytes, record.length));
+                segments.add(active);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (size == index.length) {
+            index = Arrays.copyOf(index, size * 2);
+        }
+        index[size] = (long) active.id << 32 | active.append(record);
+        // The window holds the flattened text, so sizing and evicting it never rebuilds a rope
+        cache(size++, new Memento(state));
+    }
+
+    public Memento get(int index) {
+        Objects.checkIndex(index, size);
+        Memento memento = window.get(index);
+        if (memento == null) {
+            long entry = this.index[index];
+            memento = new Memento(decode(segments.get((int) (entry >>> 32)).read((int) entry, inflater)));
+            cache(index, memento);
+        }
+        return memento;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Heap only: the cached mementos plus the offset index
+    public long retainedBytes() {
+        long offsets = 0;
+        for (Segment segment : segments) {
+            offsets += 8L * segment.count;
+        }
+        return cachedBytes + 8L * index.length + offsets;
+    }
+
+    // Bytes held in segment files, compressed or not
+    long diskBytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.storedBytes();
+        }
+        return total;
+    }
+
+    // Waits for background compression, then deletes the segment files
+    public void close() throws IOException {
+        if (compressor != null) {
+            compressor.shutdown();
+            try {
+                compressor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Segment segment : segments) {
+            segment.delete();
+        }
+        inflater.end();
+    }
+
+    private void seal() {
+        if (active != null && compressor != null) {
+            Segment sealed = active;
+            compressor.execute(sealed::compress);
+        }
+    }
+
+    private void cache(int index, Memento memento) {
+        long bytes = Memento.sizeOf(memento.getState());
+        if (bytes > windowBytes) {
+            return;
+        }
+        if (window.put(index, memento) == null) {
+            cachedBytes += bytes;
+        }
+        // Iteration order of an access-ordered map is least recently used first
+        Iterator<Memento> eldest = window.values().iterator();
+        while (cachedBytes > windowBytes) {
+            cachedBytes -= Memento.sizeOf(eldest.next().getState());
+            eldest.remove();
+        }
+    }
+
+    private static byte[] encode(String state) {
+        if (state == null) {
+            return new byte[]{NULL_STATE};
+        }
+        byte[] text = state.getBytes(StandardCharsets.UTF_8);
+        byte[] record = new byte[text.length + 1];
+        record[0] = TEXT_STATE;
+        System.arraycopy(text, 0, record, 1, text.length);
+        return record;
+    }
+
+    private static String decode(byte[] record) {
+        return record[0] == NULL_STATE ? null : new String(record, 1, record.length - 1, StandardCharsets.UTF_8);
+    }
+
+    // One segment file. Records are appended by the caretaker thread only; once the segment is sealed
+    // the compressor may swap the raw mapping for a compressed one, which readers pick up through
+    // the volatile fields.
+    private static final class Segment {
+        final int id;
+        final Path rawPath;
+        final Path compressedPath;
+        // offsets[i] is where record i starts; offsets[count] is the end of the last record
+        long[] offsets = new long[64];
+        int count;
+        private volatile MappedByteBuffer raw;
+        private volatile Compressed compressed;
+
+        private Segment(int id, Path rawPath, MappedByteBuffer raw) {
+            this.id = id;
+            this.rawPath = rawPath;
+            this.compressedPath = rawPath.resolveSibling(rawPath.getFileName() + ".z");
+            this.raw = raw;
+        }
+
+        static Segment create(Path directory, int id, int capacity) throws IOException {
+            Path path = directory.resolve(String.format("%010d.history", id));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+            }
+        }
+
+        boolean fits(int length) {
+            return offsets[count] + length <= raw.capacity();
+        }
+
+        // Returns the ordinal of the new record
+        int append(byte[] record) {
+            int start = (int) offsets[count];
+            raw.put(start, record);
+            if (count + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[count + 1] = start + record.length;
+            return count++;
+        }
+
+        byte[] read(int ordinal, Inflater inflater) {
+            // Read raw before compressed: the compressor sets compressed first and clears raw last
+            MappedByteBuffer rawBuffer = raw;
+            Compressed packed = compressed;
+            if (packed != null) {
+                return packed.read(ordinal, inflater);
+            }
+            byte[] record = new byte[(int) (offsets[ordinal + 1] - offsets[ordinal])];
+            rawBuffer.get((int) offsets[ordinal], record);
+            return record;
+        }
+
+        long storedBytes() {
+            Compressed packed = compressed;
+            return packed != null ? packed.offsets[packed.offsets.length - 1] : offsets[count];
+        }
+
+        // Deflates every record separately so each one can still be read on its own.
+        // On failure the segment simply stays uncompressed.
+        void compress() {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            long[] packedOffsets = new long[count + 1];
+            byte[] input = new byte[0];
+            byte[] output = new byte[1024];
+            try (FileChannel channel = FileChannel.open(compressedPath, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long position = 0;
+                for (int i = 0; i < count; i++) {
+                    int length = (int) (offsets[i + 1] - offsets[i]);
+                    if (input.length < length) {
+                        input = new byte[length];
+                    }
+                    raw.get((int) offsets[i], input, 0, length);
+                    deflater.reset();
+                    deflater.setInput(input, 0, length);
+                    deflater.finish();
+                    ByteBuffer header = ByteBuffer.allocate(4).putInt(0, length);
+                    position += channel.write(header, position);
+                    while (!deflater.finished()) {
+                        int produced = deflater.deflate(output);
+                        position += channel.write(ByteBuffer.wrap(output, 0, produced), position);
+                    }
+                    packedOffsets[i + 1] = position;
+                }
+                compressed = new Compressed(channel.map(FileChannel.MapMode.READ_ONLY, 0, position), packedOffsets);
+                raw = null;
+                Files.deleteIfExists(rawPath);
+            } catch (IOException e) {
+                try {
+                    Files.deleteIfExists(compressedPath);
+                } catch (IOException ignored) {
+                    // Left behind until close()
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+
+        void delete() throws IOException {
+            Files.deleteIfExists(rawPath);
+            Files.deleteIfExists(compressedPath);
+        }
+    }
+
+    // Compressed records: a 4-byte uncompressed length followed by the deflated bytes
+    private static final class Compressed {
+        final MappedByteBuffer buffer;
+        final long[] offsets;
+
+        Compressed(MappedByteBuffer buffer, long[] offsets) {
+            this.buffer = buffer;
+            this.offsets = offsets;
+        }
+
+        byte[] read(int ordinal, Inflater inflater) {
+            int start = (int) offsets[ordinal];
+            int end = (int) offsets[ordinal + 1];
+            byte[] record = new byte[buffer.getInt(start)];
+            inflater.reset();
+            inflater.setInput(buffer.slice(start + 4, end - start - 4));
+            try {
+                int read = 0;
+                while (read < record.length) {
+                    int inflated = inflater.inflate(record, read, record.length - read);
+                    if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new DataFormatException("Record " + ordinal + " is truncated");
+                    }
+                    read += inflated;
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt history segment", e);
+            }
+            return record;
+        }
+    }
+}
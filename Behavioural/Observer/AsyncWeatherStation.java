@@ -0,0 +1,238 @@
+package Behavioural.Observer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// What a full observer buffer does with a new reading
+enum OverflowPolicy {
+    BLOCK,       // the publisher waits for space: backpressure
+    DROP_OLDEST, // the oldest buffered reading is discarded
+    CONFLATE     // the newest buffered reading is overwritten, so the observer still ends on the latest value
+}
+
+// Subject that notifies observers asynchronously. Every observer has its own bounded buffer and is
+// updated by a drain task on the executor, one reading at a time and never concurrently with itself,
+// so a slow observer delays only its own buffer (or the publisher, under BLOCK).
+// The observers live in a CopyOnWriteRegistry: registering and removing are lock-free and publishing
+// iterates a snapshot that concurrent changes never disturb.
+class AsyncWeatherStation implements Subject, AutoCloseable {
+    private final CopyOnWriteRegistry<Mailbox> mailboxes =
+            new CopyOnWriteRegistry<>(new Mailbox[0], mailbox -> mailbox.observer);
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int defaultCapacity;
+    private final OverflowPolicy defaultPolicy;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile float temperature;
+    private volatile boolean closed;
+
+    // Uses virtual threads when the runtime has them, otherwise a cached pool of daemon threads
+    AsyncWeatherStation(int capacity, OverflowPolicy policy) {
+        this(newExecutor(), capacity, policy, true);
+    }
+
+    AsyncWeatherStation(Executor executor, int capacity, OverflowPolicy policy) {
+        this(executor, capacity, policy, false);
+    }
+
+    private AsyncWeatherStation(Executor executor, int capacity, OverflowPolicy policy, boolean owned) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+        this.defaultCapacity = capacity;
+        this.defaultPolicy = policy;
+    }
+
+    void setTemperature(float temperature) {
+        this.temperature = temperature;
+        notifyObservers();
+    }
+
+    public void registerObserver(Observer observer) {
+        registerObserver(observer, defaultCapacity, defaultPolicy);
+    }
+
+    void registerObserver(Observer observer, int capacity, OverflowPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        mailboxes.add(new Mailbox(observer, capacity, policy));
+    }
+
+    // Readings still buffered for the observer are discarded
+    public void removeObserver(Observer observer) {
+        Mailbox removed = mailboxes.remove(observer);
+        if (removed != null) {
+            removed.cancel();
+        }
+    }
+
+    public void notifyObservers() {
+        if (closed) {
+            throw new IllegalStateException("Weather station is closed");
+        }
+        float reading = temperature;
+        for (Mailbox mailbox : mailboxes.snapshot()) {
+            mailbox.offer(reading);
+        }
+    }
+
+    // Readings discarded by DROP_OLDEST or CONFLATE buffers
+    long droppedReadings() {
+        return dropped.sum();
+    }
+
+    // Updates that threw; the observer keeps receiving later readings
+    long failedUpdates() {
+        return failed.sum();
+    }
+
+    // Stops publishing and waits until every observer has seen its buffered readings
+    public void close() {
+        closed = true;
+        try {
+            for (Mailbox mailbox : mailboxes.snapshot()) {
+                mailbox.awaitIdle();
+            }
+            if (ownedExecutor != null) {
+                ownedExecutor.shutdown();
+                ownedExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "weather-observer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // Ring of pending readings for one observer. The lock is held only to move a float in or out,
+    // never while the observer runs; a drain task is scheduled only when the buffer goes from idle to busy.
+    private final class Mailbox {
+        final Observer observer;
+        private final OverflowPolicy policy;
+        private final float[] readings;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final Runnable drain = this::drain;
+        private int head;
+        private int count;
+        private boolean scheduled;
+        private boolean cancelled;
+
+        Mailbox(Observer observer, int capacity, OverflowPolicy policy) {
+            this.observer = observer;
+            this.policy = policy;
+            this.readings = new float[capacity];
+        }
+
+        void offer(float reading) {
+            boolean schedule;
+            lock.lock();
+            try {
+                while (count == readings.length && policy == OverflowPolicy.BLOCK && !cancelled) {
+                    changed.awaitUninterruptibly();
+                }
+                if (cancelled) {
+                    return;
+                }
+                if (count == readings.length) {
+                    dropped.increment();
+                    if (policy == OverflowPolicy.DROP_OLDEST) {
+                        head = (head + 1) % readings.length;
+                    }
+                    count--;
+                }
+                readings[(head + count++) % readings.length] = reading;
+                schedule = !scheduled;
+                scheduled = true;
+            } finally {
+                lock.unlock();
+            }
+            if (schedule) {
+                executor.execute(drain);
+            }
+        }
+
+        void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                count = 0;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void awaitIdle() throws InterruptedException {
+            lock.lock();
+            try {
+                while (scheduled) {
+                    changed.await();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void drain() {
+            boolean idle = false;
+            try {
+                while (true) {
+                    float reading;
+                    lock.lock();
+                    try {
+                        if (count == 0) {
+                            scheduled = false;
+                            idle = true;
+                            changed.signalAll();
+                            return;
+                        }
+                        reading = readings[head];
+                        head = (head + 1) % readings.length;
+                        count--;
+                        changed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                    try {
+                        observer.update(reading);
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                    }
+                }
+            } finally {
+                // An Error from update ends the task; the next offer schedules a new one, and close
+                // must not wait for this one forever
+                if (!idle) {
+                    failed.increment();
+                    lock.lock();
+                    try {
+                        scheduled = false;
+                        changed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package Behavioural.Observer;
+
+import java.lang.management.ManagementFactory;
+
+// A sensor thread publishing as fast as it can while a display thread notifies a latest-value display
+// and a batch observer in a loop: publish rate, bytes the sensor allocated, and what each observer saw
+public class ConflatingFeedBenchmark {
+    private static final long READINGS = 50_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        ConflatingWeatherStation station = new ConflatingWeatherStation(1 << 16);
+        long[] displayed = new long[1];
+        long[] sampled = new long[1];
+        float[] sum = new float[1];
+        station.registerObserver(temperature -> displayed[0]++);
+        station.registerObserver((readings, count) -> {
+            for (int i = 0; i < count; i++) {
+                sum[0] += readings[i];
+            }
+            sampled[0] += count;
+        });
+
+        Thread display = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                station.notifyObservers();
+            }
+            station.notifyObservers();
+        }, "display");
+        display.start();
+
+        // What reading the allocation counter costs by itself
+        long baseline = allocatedBytes();
+        baseline = allocatedBytes() - baseline;
+        for (int round = 1; round <= 3; round++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            for (long i = 0; i < READINGS; i++) {
+                station.setTemperature(i & 63);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            allocated = allocatedBytes() - allocated - baseline;
+            System.out.printf("round %d: %.1f M readings/s, %d bytes allocated by the sensor%n",
+                    round, READINGS / seconds / 1e6, allocated);
+        }
+        display.interrupt();
+        display.join();
+        System.out.printf("display updates %d, batch samples %d, missed %d (checksum %.0f)%n",
+                displayed[0], sampled[0], station.missedReadings(), sum[0]);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
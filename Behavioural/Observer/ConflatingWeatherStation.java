@@ -0,0 +1,156 @@
+package Behavioural.Observer;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Observer that wants every reading, delivered in batches; readings[0..count) are oldest first
+// and the array is reused after update returns
+interface BatchObserver {
+    void update(float[] readings, int count);
+}
+
+// Subject for high-frequency sensors. setTemperature only writes the reading into a primitive ring and
+// bumps a sequence number: no locks, no boxing, no allocation. Observers are not called by the sensor;
+// whoever drives the displays calls notifyObservers() at its own pace, and each observer receives what
+// happened since its last notification: the latest reading for an Observer, every reading still in the
+// ring for a BatchObserver. Readings the sensor overwrote before a batch observer caught up are counted
+// as missed.
+// One thread publishes and one thread notifies; registering and removing are lock-free from any thread.
+class ConflatingWeatherStation implements Subject {
+    private final float[] ring;
+    private final int mask;
+    // Number of readings published; reading s lives in ring[s & mask]
+    private final AtomicLong published = new AtomicLong();
+    private final CopyOnWriteRegistry<Reader> readers = new CopyOnWriteRegistry<>(new Reader[0], Reader::target);
+    private final LongAdder missed = new LongAdder();
+
+    ConflatingWeatherStation(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least 2");
+        }
+        this.ring = new float[capacity];
+        this.mask = capacity - 1;
+    }
+
+    // Single writer: the slot is written before the new count is published
+    void setTemperature(float temperature) {
+        long sequence = published.get();
+        ring[(int) (sequence & mask)] = temperature;
+        published.lazySet(sequence + 1);
+    }
+
+    // Most recent reading, or NaN before the first one
+    float latestTemperature() {
+        while (true) {
+            long sequence = published.get();
+            if (sequence == 0) {
+                return Float.NaN;
+            }
+            float value = ring[(int) ((sequence - 1) & mask)];
+            if (!overwritten(sequence - 1)) {
+                return value;
+            }
+        }
+    }
+
+    public void registerObserver(Observer observer) {
+        readers.add(new Reader(observer, null));
+    }
+
+    void registerObserver(BatchObserver observer) {
+        readers.add(new Reader(null, observer));
+    }
+
+    public void removeObserver(Observer observer) {
+        readers.remove(observer);
+    }
+
+    void removeObserver(BatchObserver observer) {
+        readers.remove(observer);
+    }
+
+    // Brings every observer up to date; observers with nothing new are skipped
+    public void notifyObservers() {
+        for (Reader reader : readers.snapshot()) {
+            reader.catchUp();
+        }
+    }
+
+    // Readings batch observers never received because the ring wrapped first
+    long missedReadings() {
+        return missed.sum();
+    }
+
+    // True once the writer may have started reusing the slot of the given sequence
+    private boolean overwritten(long sequence) {
+        VarHandle.loadLoadFence();
+        return published.get() - sequence >= ring.length;
+    }
+
+    // Position of one observer in the feed; only touched by the notifying thread
+    private final class Reader {
+        private final Observer latest;
+        private final BatchObserver batch;
+        private final float[] scratch;
+        private long next = published.get();
+
+        Reader(Observer latest, BatchObserver batch) {
+            this.latest = latest;
+            this.batch = batch;
+            this.scratch = batch == null ? null : new float[ring.length];
+        }
+
+        Object target() {
+            return latest != null ? latest : batch;
+        }
+
+        void catchUp() {
+            if (latest != null) {
+                catchUpLatest();
+                return;
+            }
+            long end = published.get();
+            if (end == next) {
+                return;
+            }
+            long start = Math.max(next, end - ring.length);
+            int count = (int) (end - start);
+            int from = (int) (start & mask);
+            int firstPart = Math.min(count, ring.length - from);
+            System.arraycopy(ring, from, scratch, 0, firstPart);
+            System.arraycopy(ring, 0, scratch, firstPart, count - firstPart);
+            // Drop whatever the writer overwrote while we were copying
+            VarHandle.loadLoadFence();
+            long firstValid = published.get() - ring.length + 1;
+            if (firstValid > start) {
+                int lost = (int) Math.min(count, firstValid - start);
+                System.arraycopy(scratch, lost, scratch, 0, count - lost);
+                count -= lost;
+                start += lost;
+            }
+            if (start > next) {
+                missed.add(start - next);
+            }
+            next = end;
+            if (count > 0) {
+                batch.update(scratch, count);
+            }
+        }
+
+        private void catchUpLatest() {
+            while (true) {
+                long end = published.get();
+                if (end == next) {
+                    return;
+                }
+                float value = ring[(int) ((end - 1) & mask)];
+                if (!overwritten(end - 1)) {
+                    next = end;
+                    latest.update(value);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package Behavioural.Observer;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+// Lock-free copy-on-write list of registered entries. Adding and removing build a new array and swap
+// it in with compare-and-set; readers iterate the snapshot they got, which later changes never touch.
+// Entries are removed by the identity of their key, e.g. the observer an entry wraps.
+final class CopyOnWriteRegistry<E> {
+    private final AtomicReference<E[]> entries;
+    private final Function<? super E, ?> key;
+
+    CopyOnWriteRegistry(E[] empty, Function<? super E, ?> key) {
+        this.entries = new AtomicReference<>(empty);
+        this.key = key;
+    }
+
+    E[] snapshot() {
+        return entries.get();
+    }
+
+    void add(E entry) {
+        E[] current;
+        E[] next;
+        do {
+            current = entries.get();
+            next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = entry;
+        } while (!entries.compareAndSet(current, next));
+    }
+
+    // The removed entry, or null if none has that key
+    E remove(Object target) {
+        E[] current;
+        E[] next;
+        E removed;
+        do {
+            current = entries.get();
+            int index = 0;
+            while (index < current.length && key.apply(current[index]) != target) {
+                index++;
+            }
+            if (index == current.length) {
+                return null;
+            }
+            removed = current[index];
+            next = Arrays.copyOf(current, current.length - 1);
+            System.arraycopy(current, index + 1, next, index, next.length - index);
+        } while (!entries.compareAndSet(current, next));
+        return removed;
+    }
+}
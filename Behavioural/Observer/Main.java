@@ -66,5 +66,27 @@ public class Main {
 
         // Simulate a change in temperature
         weatherStation.setTemperature(25.5f);
+
+        // Asynchronous station: each display has its own buffer and never blocks the sensor
+        try (AsyncWeatherStation asyncStation = new AsyncWeatherStation(16, OverflowPolicy.CONFLATE)) {
+            asyncStation.registerObserver(temperatureDisplay);
+            asyncStation.setTemperature(26.0f);
+            asyncStation.setTemperature(26.5f);
+        }
+
+        // Conflating station: the sensor only records readings, the display is updated when asked
+        ConflatingWeatherStation sensorFeed = new ConflatingWeatherStation(1024);
+        sensorFeed.registerObserver(temperatureDisplay);
+        sensorFeed.registerObserver((readings, count) -> {
+            float sum = 0;
+            for (int i = 0; i < count; i++) {
+                sum += readings[i];
+            }
+            System.out.println("Average of " + count + " readings: " + sum / count + "°C");
+        });
+        for (int i = 0; i < 500; i++) {
+            sensorFeed.setTemperature(20f + i % 10);
+        }
+        sensorFeed.notifyObservers(); // The display shows only the latest reading
     }
 }
\ No newline at end of file
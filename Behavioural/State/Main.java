@@ -24,20 +24,46 @@ class YellowLightState implements TrafficLightState {
     }
 }
 
-// Context
+// Context; a view of one slot in a StateGrid, so a standalone light and a light in a city grid
+// behave the same
 class TrafficLight {
-    private TrafficLightState currentState;
+    static final int RED = 0;
+    static final int GREEN = 1;
+    static final int YELLOW = 2;
+    static final int CHANGE = 0;
+    static final StateMachine MACHINE = new StateMachineBuilder()
+            .state("RED", new RedLightState())
+            .state("GREEN", new GreenLightState())
+            .state("YELLOW", new YellowLightState())
+            .event("CHANGE")
+            .transition("RED", "CHANGE", "GREEN")
+            .transition("GREEN", "CHANGE", "YELLOW")
+            .transition("YELLOW", "CHANGE", "RED")
+            .build();
+
+    private final StateGrid grid;
+    private final int index;
 
     TrafficLight() {
-        currentState = new RedLightState();
+        this(new StateGrid(MACHINE, 1), 0);
+    }
+
+    TrafficLight(StateGrid grid, int index) {
+        this.grid = grid;
+        this.index = index;
     }
 
     void setState(TrafficLightState state) {
-        currentState = state;
+        grid.set(index, grid.machine().stateOf(state));
     }
 
+    TrafficLightState getState() {
+        return grid.machine().behaviour(grid.state(index));
+    }
+
+    // As before the grid existed, only announces the change; the state moves when set or fired on the grid
     void change() {
-        currentState.handleRequest();
+        getState().handleRequest();
     }
 }
 
@@ -51,5 +77,23 @@ public class Main {
         trafficLight.change(); // Changing to yellow...
         trafficLight.setState(new YellowLightState());
         trafficLight.change(); // Changing to red...
+
+        // A city grid: one byte per light, whole grid stepped in bulk
+        StateGrid city = new StateGrid(TrafficLight.MACHINE, 1_000_000);
+        city.fire(TrafficLight.CHANGE, 0, 500_000);
+        city.fireParallel(TrafficLight.CHANGE);
+        System.out.println("City grid: " + city);
+        new TrafficLight(city, 0).change(); // Changing to red...
+
+        // Timed lights: red 3 ticks, green 2, yellow 1, each light starting one tick after the last
+        StateGrid street = new StateGrid(TrafficLight.MACHINE, 3);
+        TrafficSignalScheduler signals = new TrafficSignalScheduler(street, 3, 2, 1);
+        for (int light = 0; light < street.size(); light++) {
+            signals.start(light, light + 1);
+        }
+        for (int tick = 1; tick <= 6; tick++) {
+            signals.advanceTo(tick);
+            System.out.println("Tick " + tick + ": " + street);
+        }
     }
 }
\ No newline at end of file
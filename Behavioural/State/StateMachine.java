@@ -0,0 +1,223 @@
+package Behavioural.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Collects states, events and transitions; states and events are numbered in the order they are added
+class StateMachineBuilder {
+    private final List<String> stateNames = new ArrayList<>();
+    private final List<TrafficLightState> behaviours = new ArrayList<>();
+    private final List<String> eventNames = new ArrayList<>();
+    private final List<int[]> transitions = new ArrayList<>();
+
+    StateMachineBuilder state(String name, TrafficLightState behaviour) {
+        if (stateNames.contains(name)) {
+            throw new IllegalArgumentException("Duplicate state " + name);
+        }
+        stateNames.add(name);
+        behaviours.add(behaviour);
+        return this;
+    }
+
+    StateMachineBuilder event(String name) {
+        if (eventNames.contains(name)) {
+            throw new IllegalArgumentException("Duplicate event " + name);
+        }
+        eventNames.add(name);
+        return this;
+    }
+
+    StateMachineBuilder transition(String from, String event, String to) {
+        transitions.add(new int[]{indexOf(stateNames, from), indexOf(eventNames, event), indexOf(stateNames, to)});
+        return this;
+    }
+
+    // Events with no transition from a state leave it unchanged
+    StateMachine build() {
+        if (stateNames.isEmpty() || stateNames.size() > 256) {
+            throw new IllegalStateException("A state machine needs between 1 and 256 states");
+        }
+        int events = eventNames.size();
+        byte[][] next = new byte[events][stateNames.size()];
+        for (int event = 0; event < events; event++) {
+            for (int state = 0; state < stateNames.size(); state++) {
+                next[event][state] = (byte) state;
+            }
+        }
+        for (int[] transition : transitions) {
+            next[transition[1]][transition[0]] = (byte) transition[2];
+        }
+        return new StateMachine(stateNames.toArray(new String[0]), eventNames.toArray(new String[0]),
+                behaviours.toArray(new TrafficLightState[0]), next);
+    }
+
+    private static int indexOf(List<String> names, String name) {
+        int index = names.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown state or event " + name);
+        }
+        return index;
+    }
+}
+
+// Compiled state machine: one primitive column per event mapping a state number to the next one.
+// States are plain numbers, so instances need no objects at all (see StateGrid); the behaviour
+// objects are shared, one per state.
+class StateMachine {
+    private final String[] stateNames;
+    private final String[] eventNames;
+    private final TrafficLightState[] behaviours;
+    private final byte[][] next;
+    private final Map<Class<?>, Integer> statesByClass = new HashMap<>();
+
+    StateMachine(String[] stateNames, String[] eventNames, TrafficLightState[] behaviours, byte[][] next) {
+        this.stateNames = stateNames;
+        this.eventNames = eventNames;
+        this.behaviours = behaviours;
+        this.next = next;
+        for (int state = 0; state < behaviours.length; state++) {
+            statesByClass.putIfAbsent(behaviours[state].getClass(), state);
+        }
+    }
+
+    int stateCount() {
+        return stateNames.length;
+    }
+
+    int eventCount() {
+        return eventNames.length;
+    }
+
+    String stateName(int state) {
+        return stateNames[state];
+    }
+
+    String eventName(int event) {
+        return eventNames[event];
+    }
+
+    int next(int state, int event) {
+        return next[event][state] & 0xFF;
+    }
+
+    TrafficLightState behaviour(int state) {
+        return behaviours[state];
+    }
+
+    // State number of a behaviour object, matched by class so fresh instances map to their state
+    int stateOf(TrafficLightState behaviour) {
+        Integer state = statesByClass.get(behaviour.getClass());
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown state " + behaviour.getClass().getSimpleName());
+        }
+        return state;
+    }
+
+    // Column for one event; callers must not modify it
+    byte[] column(int event) {
+        return next[event];
+    }
+}
+
+// Many instances of one state machine stored as a byte per instance (struct of arrays).
+// Bulk transitions are one table lookup per instance in a tight loop over the array, and
+// fireParallel() splits the array across the common fork-join pool.
+class StateGrid {
+    static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    private final StateMachine machine;
+    private final byte[] states;
+
+    // Every instance starts in state 0
+    StateGrid(StateMachine machine, int size) {
+        this.machine = machine;
+        this.states = new byte[size];
+    }
+
+    StateMachine machine() {
+        return machine;
+    }
+
+    int size() {
+        return states.length;
+    }
+
+    int state(int index) {
+        return states[index] & 0xFF;
+    }
+
+    void set(int index, int state) {
+        if (state < 0 || state >= machine.stateCount()) {
+            throw new IllegalArgumentException("No state " + state);
+        }
+        states[index] = (byte) state;
+    }
+
+    void fire(int event, int index) {
+        states[index] = machine.column(event)[states[index] & 0xFF];
+    }
+
+    // Applies the event to instances [from, to)
+    void fire(int event, int from, int to) {
+        Objects.checkFromToIndex(from, to, states.length);
+        byte[] column = machine.column(event);
+        byte[] states = this.states;
+        for (int i = from; i < to; i++) {
+            states[i] = column[states[i] & 0xFF];
+        }
+    }
+
+    void fireParallel(int event) {
+        ForkJoinPool.commonPool().invoke(new Split(event, 0, states.length));
+    }
+
+    // Number of instances in each state
+    int[] census() {
+        int[] counts = new int[machine.stateCount()];
+        for (byte state : states) {
+            counts[state & 0xFF]++;
+        }
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        int[] counts = census();
+        StringBuilder text = new StringBuilder();
+        for (int state = 0; state < counts.length; state++) {
+            text.append(state == 0 ? "" : ", ").append(machine.stateName(state)).append('=').append(counts[state]);
+        }
+        return text.toString();
+    }
+
+    // Halves the range until it is small enough for one worker; splits fall on 64-byte boundaries
+    // so two workers never write the same cache line
+    private final class Split extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int event;
+        private final int from;
+        private final int to;
+
+        Split(int event, int from, int to) {
+            this.event = event;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                fire(event, from, to);
+                return;
+            }
+            int middle = (from + (to - from) / 2) & ~63;
+            invokeAll(new Split(event, from, middle), new Split(event, middle, to));
+        }
+    }
+}
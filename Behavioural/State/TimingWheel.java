@@ -0,0 +1,147 @@
+package Behavioural.State;
+
+import java.util.Arrays;
+
+// Receives every timer that expired on one tick at once; timers[0..count) may be rescheduled from here
+interface ExpiryHandler {
+    void expired(int[] timers, int count, long tick);
+}
+
+// Hierarchical timing wheel for a fixed population of timers numbered 0..capacity-1.
+// Four levels of 256 slots each cover 2^32 ticks: level L holds timers due between 256^L and 256^(L+1)
+// ticks ahead, and a slot of level L is moved down a level when the wheel below it wraps around.
+// Timers live in primitive arrays as intrusive doubly linked lists, so schedule and cancel are O(1)
+// and nothing is allocated per timer; deadlines further than 2^32 ticks ahead are re-cascaded.
+class TimingWheel {
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int NONE = -1;
+
+    private final int[] heads = new int[LEVELS * SLOTS];
+    private final int[] next;
+    private final int[] previous;
+    // Slot a timer is linked into, or NONE when it is not scheduled
+    private final int[] slotOf;
+    private final long[] deadlines;
+    private int[] batch = new int[64];
+    private long currentTick;
+    private int pending;
+
+    TimingWheel(int capacity) {
+        next = new int[capacity];
+        previous = new int[capacity];
+        slotOf = new int[capacity];
+        deadlines = new long[capacity];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(slotOf, NONE);
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    int pending() {
+        return pending;
+    }
+
+    boolean isScheduled(int timer) {
+        return slotOf[timer] != NONE;
+    }
+
+    long deadline(int timer) {
+        return deadlines[timer];
+    }
+
+    // Replaces any earlier deadline; deadlines not after the current tick fire on the next tick
+    void schedule(int timer, long deadlineTick) {
+        if (slotOf[timer] != NONE) {
+            unlink(timer);
+        } else {
+            pending++;
+        }
+        deadlines[timer] = Math.max(deadlineTick, currentTick + 1);
+        link(timer);
+    }
+
+    boolean cancel(int timer) {
+        if (slotOf[timer] == NONE) {
+            return false;
+        }
+        unlink(timer);
+        pending--;
+        return true;
+    }
+
+    // Runs every tick up to and including the given one; returns the number of timers that expired
+    int advanceTo(long tick, ExpiryHandler handler) {
+        int expired = 0;
+        while (currentTick < tick) {
+            currentTick++;
+            for (int level = 1; level < LEVELS && (currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0; level++) {
+                cascade(level * SLOTS + (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+            }
+            int count = detach((int) (currentTick & SLOT_MASK));
+            if (count > 0) {
+                pending -= count;
+                expired += count;
+                handler.expired(batch, count, currentTick);
+            }
+        }
+        return expired;
+    }
+
+    private void link(int timer) {
+        long delta = deadlines[timer] - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = level * SLOTS + (int) ((deadlines[timer] >>> (SLOT_BITS * level)) & SLOT_MASK);
+        int head = heads[slot];
+        next[timer] = head;
+        previous[timer] = NONE;
+        if (head != NONE) {
+            previous[head] = timer;
+        }
+        heads[slot] = timer;
+        slotOf[timer] = slot;
+    }
+
+    private void unlink(int timer) {
+        int before = previous[timer];
+        int after = next[timer];
+        if (before == NONE) {
+            heads[slotOf[timer]] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+        slotOf[timer] = NONE;
+    }
+
+    // Re-links every timer of a higher-level slot relative to the current tick
+    private void cascade(int slot) {
+        int count = detach(slot);
+        for (int i = 0; i < count; i++) {
+            link(batch[i]);
+        }
+    }
+
+    // Empties a slot into the batch buffer and returns how many timers it held
+    private int detach(int slot) {
+        int count = 0;
+        for (int timer = heads[slot]; timer != NONE; timer = next[timer]) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, count * 2);
+            }
+            batch[count++] = timer;
+            slotOf[timer] = NONE;
+        }
+        heads[slot] = NONE;
+        return count;
+    }
+}
@@ -0,0 +1,66 @@
+package Behavioural.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Timers per second for 4M traffic lights on simulated time, schedule/cancel cost, and how late
+// each 1 ms tick runs when the wheel is driven by the wall clock
+public class TimingWheelBenchmark {
+    private static final int LIGHTS = 4 << 20;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    public static void main(String[] args) {
+        for (int round = 1; round <= 3; round++) {
+            TrafficSignalScheduler scheduler = startCity(new Random(round));
+            long start = System.nanoTime();
+            scheduler.advanceTo(20_000);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("round %d: %d transitions in %.2f s, %.1f M timers/s%n",
+                    round, scheduler.transitions(), seconds, scheduler.transitions() / seconds / 1e6);
+        }
+
+        TimingWheel wheel = new TimingWheel(LIGHTS);
+        Random random = new Random(20);
+        long start = System.nanoTime();
+        for (int i = 0; i < LIGHTS; i++) {
+            wheel.schedule(i, 1 + random.nextInt(1 << 20));
+        }
+        for (int i = 0; i < LIGHTS; i++) {
+            wheel.cancel(i);
+        }
+        System.out.printf("schedule + cancel: %.0f ns per timer%n", (System.nanoTime() - start) / (double) LIGHTS);
+
+        wallClock(startCity(new Random(7)), 2000);
+    }
+
+    // Lights cycle red 30 s, green 25 s, yellow 4 s with 1 ms ticks, starting at random points
+    private static TrafficSignalScheduler startCity(Random random) {
+        StateGrid grid = new StateGrid(TrafficLight.MACHINE, LIGHTS);
+        TrafficSignalScheduler scheduler = new TrafficSignalScheduler(grid, 30_000, 25_000, 4_000);
+        for (int light = 0; light < LIGHTS; light++) {
+            scheduler.start(light, 1 + random.nextInt(30_000));
+        }
+        return scheduler;
+    }
+
+    // Runs one tick per millisecond and records how late each tick started
+    private static void wallClock(TrafficSignalScheduler scheduler, int ticks) {
+        long[] lateness = new long[ticks];
+        long origin = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            long due = origin + (i + 1) * TICK_NANOS;
+            long now;
+            while ((now = System.nanoTime()) < due) {
+                LockSupport.parkNanos(due - now);
+            }
+            lateness[i] = now - due;
+            scheduler.advanceTo(scheduler.currentTick() + 1);
+        }
+        Arrays.sort(lateness);
+        System.out.printf("wall clock: %d ticks, %d transitions, tick lateness p50 %d us, p99 %d us, max %d us%n",
+                ticks, scheduler.transitions(), lateness[ticks / 2] / 1000, lateness[ticks * 99 / 100] / 1000,
+                lateness[ticks - 1] / 1000);
+    }
+}
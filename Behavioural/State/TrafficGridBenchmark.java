@@ -0,0 +1,56 @@
+package Behavioural.State;
+
+// Steps a city of 16M traffic lights: one state object per light replaced on every change,
+// against the byte-per-light grid stepped sequentially and in parallel
+public class TrafficGridBenchmark {
+    private static final int LIGHTS = 16 << 20;
+    private static final int STEPS = 10;
+
+    public static void main(String[] args) {
+        System.out.println(Runtime.getRuntime().availableProcessors() + " cores, " + LIGHTS + " lights");
+        for (int round = 1; round <= 3; round++) {
+            TrafficLightState[] objects = new TrafficLightState[LIGHTS];
+            for (int i = 0; i < LIGHTS; i++) {
+                objects[i] = new RedLightState();
+            }
+            long start = System.nanoTime();
+            for (int step = 0; step < STEPS; step++) {
+                for (int i = 0; i < LIGHTS; i++) {
+                    objects[i] = nextObject(objects[i]);
+                }
+            }
+            double objectRate = rate(start);
+            objects = null;
+
+            StateGrid grid = new StateGrid(TrafficLight.MACHINE, LIGHTS);
+            start = System.nanoTime();
+            for (int step = 0; step < STEPS; step++) {
+                grid.fire(TrafficLight.CHANGE, 0, LIGHTS);
+            }
+            double bulkRate = rate(start);
+
+            start = System.nanoTime();
+            for (int step = 0; step < STEPS; step++) {
+                grid.fireParallel(TrafficLight.CHANGE);
+            }
+            double parallelRate = rate(start);
+            System.out.printf("round %d: objects %.0f M/s, bulk %.0f M/s, parallel %.0f M/s (%s)%n",
+                    round, objectRate, bulkRate, parallelRate, grid);
+        }
+    }
+
+    // The original way to move a light on: a new state object per transition
+    private static TrafficLightState nextObject(TrafficLightState state) {
+        if (state instanceof RedLightState) {
+            return new GreenLightState();
+        }
+        if (state instanceof GreenLightState) {
+            return new YellowLightState();
+        }
+        return new RedLightState();
+    }
+
+    private static double rate(long start) {
+        return (double) LIGHTS * STEPS / ((System.nanoTime() - start) / 1e3);
+    }
+}
@@ -0,0 +1,62 @@
+package Behavioural.State;
+
+// Drives the lights of a StateGrid on timers: when a light's deadline expires it takes the CHANGE
+// transition and is rescheduled for as long as its new state lasts. Each tick handles all of its
+// expired lights as one batch, with one timer per light and no objects per light.
+class TrafficSignalScheduler implements ExpiryHandler {
+    private final StateGrid grid;
+    private final TimingWheel wheel;
+    private final long[] ticksInState;
+    private long transitions;
+
+    // ticksInState[s] is how long a light stays in state s
+    TrafficSignalScheduler(StateGrid grid, long... ticksInState) {
+        if (ticksInState.length != grid.machine().stateCount()) {
+            throw new IllegalArgumentException("Need a duration for each of the "
+                    + grid.machine().stateCount() + " states");
+        }
+        for (long ticks : ticksInState) {
+            if (ticks < 1) {
+                throw new IllegalArgumentException("State durations must be at least one tick");
+            }
+        }
+        this.grid = grid;
+        this.wheel = new TimingWheel(grid.size());
+        this.ticksInState = ticksInState.clone();
+    }
+
+    // Starts (or restarts) the light's timer; its first change is at the given tick
+    void start(int light, long firstChangeTick) {
+        wheel.schedule(light, firstChangeTick);
+    }
+
+    void stop(int light) {
+        wheel.cancel(light);
+    }
+
+    long currentTick() {
+        return wheel.currentTick();
+    }
+
+    long transitions() {
+        return transitions;
+    }
+
+    int runningLights() {
+        return wheel.pending();
+    }
+
+    // Advances the clock, changing every light whose deadline passes
+    int advanceTo(long tick) {
+        return wheel.advanceTo(tick, this);
+    }
+
+    public void expired(int[] lights, int count, long tick) {
+        for (int i = 0; i < count; i++) {
+            int light = lights[i];
+            grid.fire(TrafficLight.CHANGE, light);
+            wheel.schedule(light, tick + ticksInState[grid.state(light)]);
+        }
+        transitions += count;
+    }
+}
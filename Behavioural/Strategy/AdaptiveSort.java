@@ -0,0 +1,69 @@
+package Behavioural.Strategy;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Strategy that looks at the data before sorting it. One scan finds the key range and counts
+// descents and ascents, which approximates how many runs the data already has; then:
+//   few runs (sorted, reversed, or a few sorted blocks) -> MergeSort, which merges the runs it finds
+//   fewer distinct key values than elements             -> CountingSort
+//   large arrays on several cores                       -> ParallelMergeSort
+//   medium to large arrays                              -> RadixSort, with fewer passes for narrow ranges
+//   otherwise                                           -> QuickSort
+class AdaptiveSort implements SortingStrategy {
+    static final int SMALL = 64;
+    static final int RADIX_THRESHOLD = 1 << 9;
+    static final int PARALLEL_THRESHOLD = 1 << 18;
+    // Average run length above which merging existing runs wins
+    static final int LONG_RUNS = 256;
+
+    private final QuickSort quickSort = new QuickSort();
+    private final MergeSort mergeSort = new MergeSort();
+    private final RadixSort radixSort = new RadixSort();
+    private final CountingSort countingSort = new CountingSort();
+    private final ParallelMergeSort parallelMergeSort = new ParallelMergeSort();
+    private final boolean parallel = ForkJoinPool.getCommonPoolParallelism() > 1;
+
+    public void sort(int[] data) {
+        chooseAndSort(data);
+    }
+
+    // The strategy that sorted the data
+    SortingStrategy chooseAndSort(int[] data) {
+        SortingStrategy choice = choose(data);
+        choice.sort(data);
+        return choice;
+    }
+
+    SortingStrategy choose(int[] data) {
+        int length = data.length;
+        if (length < SMALL) {
+            return quickSort;
+        }
+        int min = data[0];
+        int max = data[0];
+        int descents = 0;
+        int ascents = 0;
+        for (int i = 1; i < length; i++) {
+            int value = data[i];
+            int previous = data[i - 1];
+            if (value < previous) {
+                descents++;
+            } else if (value > previous) {
+                ascents++;
+            }
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (Math.min(descents, ascents) < length / LONG_RUNS) {
+            return mergeSort;
+        }
+        long range = (long) max - min + 1;
+        if (range <= length && range <= CountingSort.MAX_RANGE) {
+            return countingSort;
+        }
+        if (parallel && length >= PARALLEL_THRESHOLD) {
+            return parallelMergeSort;
+        }
+        return length >= RADIX_THRESHOLD ? radixSort : quickSort;
+    }
+}
@@ -0,0 +1,74 @@
+package Behavioural.Strategy;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Adaptive sorting against Arrays.sort on 4M ints from skewed distributions, best of five runs each
+public class AdaptiveSortBenchmark {
+    private static final int SIZE = 4 << 20;
+
+    public static void main(String[] args) {
+        String[] names = {"uniform", "zipfian", "few unique", "16-bit keys", "nearly sorted", "sorted blocks"};
+        AdaptiveSort adaptive = new AdaptiveSort();
+        System.out.printf("%-14s %14s %14s  %s%n", "input", "Arrays.sort ms", "adaptive ms", "chosen");
+        for (int kind = 0; kind < names.length; kind++) {
+            int[] input = generate(kind, new Random(kind));
+            double reference = bestOf(input, Arrays::sort);
+            double chosen = bestOf(input, adaptive::sort);
+            System.out.printf("%-14s %14.1f %14.1f  %s%n", names[kind], reference, chosen,
+                    adaptive.choose(input).getClass().getSimpleName());
+        }
+    }
+
+    private static double bestOf(int[] input, SortingStrategy strategy) {
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+        double best = Double.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            int[] data = input.clone();
+            long start = System.nanoTime();
+            strategy.sort(data);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+            if (!Arrays.equals(data, expected)) {
+                throw new IllegalStateException("Not sorted");
+            }
+        }
+        return best;
+    }
+
+    private static int[] generate(int kind, Random random) {
+        int[] data = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            switch (kind) {
+                case 0:
+                    data[i] = random.nextInt();
+                    break;
+                case 1:
+                    // Rank k drawn with probability ~ 1/k, scattered over the int range
+                    data[i] = (int) ((long) Math.exp(random.nextDouble() * Math.log(1 << 20)) * 2654435761L);
+                    break;
+                case 2:
+                    data[i] = random.nextInt(100) * 1000;
+                    break;
+                case 3:
+                    data[i] = random.nextInt(1 << 16);
+                    break;
+                case 4:
+                    data[i] = i;
+                    break;
+                default:
+                    data[i] = (i % (SIZE / 16)) * 3 + random.nextInt(3);
+            }
+        }
+        if (kind == 4) {
+            for (int swap = 0; swap < SIZE / 1000; swap++) {
+                int a = random.nextInt(SIZE);
+                int b = random.nextInt(SIZE);
+                int value = data[a];
+                data[a] = data[b];
+                data[b] = value;
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,245 @@
+package Behavioural.Strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Out-of-core sort for files of 32-bit big-endian ints, for data many times larger than the heap.
+// Run phase: the input is mapped one run at a time, each run is sorted with ParallelMergeSort and
+// written to its own temp file through a mapped buffer. Merge phase: up to fanIn runs at a time are
+// merged through a loser tree, reading and writing with FileChannel and direct buffers, until one
+// pass can produce the output. Heap use is two run arrays plus fanIn read buffers.
+class ExternalSort implements SortingStrategy {
+    static final int DEFAULT_RUN_INTS = 1 << 26;
+    static final int DEFAULT_FAN_IN = 64;
+    static final int BUFFER_BYTES = 1 << 20;
+
+    private final Path tempDirectory;
+    private final int runInts;
+    private final int fanIn;
+    private final ParallelMergeSort runSorter = new ParallelMergeSort();
+
+    ExternalSort(Path tempDirectory) {
+        this(tempDirectory, DEFAULT_RUN_INTS, DEFAULT_FAN_IN);
+    }
+
+    ExternalSort(Path tempDirectory, int runInts, int fanIn) {
+        if (runInts < 1 || fanIn < 2) {
+            throw new IllegalArgumentException("Runs must hold at least one int and fan-in must be at least 2");
+        }
+        this.tempDirectory = tempDirectory;
+        this.runInts = runInts;
+        this.fanIn = fanIn;
+    }
+
+    // Data already in memory is a single run
+    public void sort(int[] data) {
+        runSorter.sort(data);
+    }
+
+    void sortFile(Path input, Path output) throws IOException {
+        long bytes = Files.size(input);
+        if (bytes % Integer.BYTES != 0) {
+            throw new IOException(input + " is not a whole number of ints");
+        }
+        List<Path> created = new ArrayList<>();
+        try {
+            List<Path> runs = writeRuns(input, bytes / Integer.BYTES, created);
+            while (runs.size() > fanIn) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(runs.size(), i + fanIn));
+                    if (group.size() == 1) {
+                        merged.add(group.get(0));
+                        continue;
+                    }
+                    Path run = Files.createTempFile(tempDirectory, "merged", ".ints");
+                    created.add(run);
+                    merge(group, run);
+                    for (Path done : group) {
+                        Files.delete(done);
+                    }
+                    merged.add(run);
+                }
+                runs = merged;
+            }
+            merge(runs, output);
+        } finally {
+            for (Path run : created) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    private List<Path> writeRuns(Path input, long ints, List<Path> created) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        int[] run = new int[(int) Math.min(runInts, ints)];
+        int[] scratch = new int[run.length];
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            for (long done = 0; done < ints; ) {
+                int count = (int) Math.min(run.length, ints - done);
+                in.map(FileChannel.MapMode.READ_ONLY, done * Integer.BYTES, (long) count * Integer.BYTES)
+                        .asIntBuffer().get(run, 0, count);
+                runSorter.sort(run, count, scratch);
+                Path path = Files.createTempFile(tempDirectory, "run", ".ints");
+                created.add(path);
+                try (FileChannel out = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    out.map(FileChannel.MapMode.READ_WRITE, 0, (long) count * Integer.BYTES)
+                            .asIntBuffer().put(run, 0, count);
+                }
+                runs.add(path);
+                done += count;
+            }
+        }
+        return runs;
+    }
+
+    private static void merge(List<Path> runs, Path output) throws IOException {
+        RunReader[] readers = new RunReader[runs.size()];
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new RunReader(FileChannel.open(runs.get(i), StandardOpenOption.READ));
+            }
+            LoserTree tree = new LoserTree(readers);
+            ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            int[] block = new int[BUFFER_BYTES / Integer.BYTES];
+            int count = 0;
+            while (tree.hasNext()) {
+                block[count++] = tree.next();
+                if (count == block.length) {
+                    write(out, bytes, block, count);
+                    count = 0;
+                }
+            }
+            write(out, bytes, block, count);
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    private static void write(FileChannel out, ByteBuffer bytes, int[] block, int count) throws IOException {
+        bytes.clear();
+        bytes.asIntBuffer().put(block, 0, count);
+        bytes.limit(count * Integer.BYTES);
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+
+    // Sequential reader of one run, refilled a buffer at a time
+    private static final class RunReader {
+        private final FileChannel channel;
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final int[] block = new int[BUFFER_BYTES / Integer.BYTES];
+        private int position;
+        private int limit;
+
+        RunReader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        boolean hasNext() throws IOException {
+            if (position < limit) {
+                return true;
+            }
+            bytes.clear();
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // Keep reading until the buffer is full or the run ends
+            }
+            bytes.flip();
+            limit = bytes.remaining() / Integer.BYTES;
+            bytes.asIntBuffer().get(block, 0, limit);
+            position = 0;
+            return limit > 0;
+        }
+
+        int next() {
+            return block[position++];
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // Tournament tree over the run heads: tree[0] holds the run with the smallest head and every other
+    // node the loser of the match played there, so replacing the winner replays only its path to the
+    // root, log2(k) comparisons per element
+    private static final class LoserTree {
+        private final RunReader[] readers;
+        private final int[] tree;
+        private final int[] heads;
+        private final boolean[] exhausted;
+
+        LoserTree(RunReader[] readers) throws IOException {
+            int k = readers.length;
+            this.readers = readers;
+            this.tree = new int[Math.max(k, 1)];
+            this.heads = new int[k];
+            this.exhausted = new boolean[k];
+            for (int i = 0; i < k; i++) {
+                advance(i);
+            }
+            // Player k is a virtual minimum that wins every initial match, so each real run
+            // pushes it up the tree until the real winner reaches the root
+            Arrays.fill(tree, k);
+            for (int i = k - 1; i >= 0; i--) {
+                replay(i);
+            }
+        }
+
+        boolean hasNext() {
+            return tree.length > 0 && heads.length > 0 && !exhausted[tree[0]];
+        }
+
+        int next() throws IOException {
+            int winner = tree[0];
+            int value = heads[winner];
+            advance(winner);
+            replay(winner);
+            return value;
+        }
+
+        private void advance(int run) throws IOException {
+            if (readers[run].hasNext()) {
+                heads[run] = readers[run].next();
+            } else {
+                exhausted[run] = true;
+            }
+        }
+
+        private void replay(int player) {
+            int k = heads.length;
+            for (int node = (player + k) >>> 1; node > 0; node >>>= 1) {
+                if (beats(tree[node], player)) {
+                    int loser = player;
+                    player = tree[node];
+                    tree[node] = loser;
+                }
+            }
+            tree[0] = player;
+        }
+
+        private boolean beats(int a, int b) {
+            int k = heads.length;
+            if (a == k || b == k) {
+                return a == k;
+            }
+            if (exhausted[a] || exhausted[b]) {
+                return exhausted[b] && !exhausted[a];
+            }
+            return heads[a] < heads[b] || (heads[a] == heads[b] && a < b);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package Behavioural.Strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+// External sort throughput in GB/min. Usage: ExternalSortBenchmark [megabytes] [run megabytes] [fan-in].
+// Run with a heap well below the input size, e.g. -Xmx2g for 20480 MB, to keep the sort out of core.
+public class ExternalSortBenchmark {
+    public static void main(String[] args) throws IOException {
+        long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 1024;
+        int runInts = args.length > 1 ? Integer.parseInt(args[1]) << 18 : ExternalSort.DEFAULT_RUN_INTS;
+        int fanIn = args.length > 2 ? Integer.parseInt(args[2]) : ExternalSort.DEFAULT_FAN_IN;
+        Path directory = Files.createTempDirectory("external-sort");
+        Path input = directory.resolve("input.ints");
+        Path output = directory.resolve("output.ints");
+        try {
+            generate(input, megabytes << 20);
+            long start = System.nanoTime();
+            new ExternalSort(directory, runInts, fanIn).sortFile(input, output);
+            double minutes = (System.nanoTime() - start) / 6e10;
+            verify(output, megabytes << 20);
+            System.out.printf("%d MB, runs of %d MB, fan-in %d, heap %d MB: %.2f s, %.2f GB/min%n",
+                    megabytes, runInts >> 18, fanIn, Runtime.getRuntime().maxMemory() >> 20,
+                    minutes * 60, megabytes / 1024.0 / minutes);
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+            Files.delete(directory);
+        }
+    }
+
+    private static void generate(Path file, long bytes) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ExternalSort.BUFFER_BYTES);
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (long written = 0; written < bytes; ) {
+                buffer.clear();
+                while (buffer.hasRemaining() && written + buffer.position() < bytes) {
+                    buffer.putInt(random.nextInt());
+                }
+                buffer.flip();
+                written += buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+        }
+    }
+
+    private static void verify(Path file, long bytes) throws IOException {
+        if (Files.size(file) != bytes) {
+            throw new IllegalStateException("Output has " + Files.size(file) + " bytes, expected " + bytes);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ExternalSort.BUFFER_BYTES);
+        int previous = Integer.MIN_VALUE;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= Integer.BYTES) {
+                    int value = buffer.getInt();
+                    if (value < previous) {
+                        throw new IllegalStateException("Output is not sorted");
+                    }
+                    previous = value;
+                }
+                buffer.compact();
+            }
+        }
+    }
+}
@@ -1,29 +1,228 @@
 package Behavioural.Strategy;
 
-// Strategy interface
+import java.util.Arrays;
+
+// Strategy interface; implementations keep no per-call state, so one instance can be shared by threads
 interface SortingStrategy {
     void sort(int[] data);
 }
 
 // Concrete strategies
 class BubbleSort implements SortingStrategy {
+    // Stops as soon as a pass makes no swap; everything after the last swap is already in place
     public void sort(int[] data) {
-        // Implementation of bubble sort
-        System.out.println("Sorting using Bubble Sort");
+        int end = data.length;
+        while (end > 1) {
+            int lastSwap = 0;
+            for (int i = 1; i < end; i++) {
+                if (data[i - 1] > data[i]) {
+                    int swap = data[i - 1];
+                    data[i - 1] = data[i];
+                    data[i] = swap;
+                    lastSwap = i;
+                }
+            }
+            end = lastSwap;
+        }
     }
 }
 
+// Stable natural merge sort: existing ascending runs are kept (strictly descending ones reversed),
+// short runs are extended with insertion sort, and neighbouring runs are merged pairwise.
+// Presorted input costs one pass. The merge buffer and run list are per-thread scratch arrays.
 class MergeSort implements SortingStrategy {
+    static final int MIN_RUN = 32;
+
+    private static final ScratchArray BUFFER = new ScratchArray();
+    private static final ScratchArray RUNS = new ScratchArray();
+
     public void sort(int[] data) {
-        // Implementation of merge sort
-        System.out.println("Sorting using Merge Sort");
+        int length = data.length;
+        if (length < 2) {
+            return;
+        }
+        int[] buffer = BUFFER.get(length);
+        int[] runs = RUNS.get(length / MIN_RUN + 2);
+        int count = 0;
+        int start = 0;
+        while (start < length) {
+            int end = runEnd(data, start, length);
+            if (end - start < MIN_RUN) {
+                int extended = Math.min(length, start + MIN_RUN);
+                QuickSort.insertionSort(data, start, extended - 1);
+                end = extended;
+            }
+            runs[count++] = start;
+            start = end;
+        }
+        runs[count] = length;
+        while (count > 1) {
+            int merged = 0;
+            for (int i = 0; i < count; i += 2) {
+                if (i + 1 < count) {
+                    merge(data, buffer, runs[i], runs[i + 1], runs[i + 2]);
+                }
+                runs[merged++] = runs[i];
+            }
+            runs[merged] = length;
+            count = merged;
+        }
+    }
+
+    // End of the run starting at start; a strictly descending run is reversed in place
+    private static int runEnd(int[] data, int start, int length) {
+        int end = start + 1;
+        if (end == length) {
+            return end;
+        }
+        if (data[end] < data[start]) {
+            while (end < length && data[end] < data[end - 1]) {
+                end++;
+            }
+            for (int i = start, j = end - 1; i < j; i++, j--) {
+                int swap = data[i];
+                data[i] = data[j];
+                data[j] = swap;
+            }
+        } else {
+            while (end < length && data[end] >= data[end - 1]) {
+                end++;
+            }
+        }
+        return end;
+    }
+
+    // Merges data[from, middle) and data[middle, to); only the left run is copied out
+    private static void merge(int[] data, int[] buffer, int from, int middle, int to) {
+        if (data[middle - 1] <= data[middle]) {
+            return;
+        }
+        int leftLength = middle - from;
+        System.arraycopy(data, from, buffer, 0, leftLength);
+        int left = 0;
+        int right = middle;
+        int out = from;
+        while (left < leftLength && right < to) {
+            data[out++] = data[right] < buffer[left] ? data[right++] : buffer[left++];
+        }
+        System.arraycopy(buffer, left, data, out, leftLength - left);
     }
 }
 
+// Dual-pivot quicksort with an introsort guard: past 2 log2(n) levels of partitioning a range is
+// heapsorted instead, so adversarial input cannot make it quadratic. Small ranges use insertion sort.
 class QuickSort implements SortingStrategy {
+    static final int INSERTION_THRESHOLD = 40;
+
     public void sort(int[] data) {
-        // Implementation of quicksort
-        System.out.println("Sorting using QuickSort");
+        sort(data, 0, data.length);
+    }
+
+    void sort(int[] data, int from, int to) {
+        if (to - from > 1) {
+            sort(data, from, to - 1, 2 * (31 - Integer.numberOfLeadingZeros(to - from)));
+        }
+    }
+
+    private static void sort(int[] data, int left, int right, int depth) {
+        if (right - left < INSERTION_THRESHOLD) {
+            insertionSort(data, left, right);
+            return;
+        }
+        if (depth == 0) {
+            heapSort(data, left, right);
+            return;
+        }
+        choosePivots(data, left, right);
+        int low = data[left];
+        int high = data[right];
+        int less = left + 1;
+        int greater = right - 1;
+        for (int k = less; k <= greater; k++) {
+            int value = data[k];
+            if (value < low) {
+                data[k] = data[less];
+                data[less++] = value;
+            } else if (value > high) {
+                while (data[greater] > high && k < greater) {
+                    greater--;
+                }
+                data[k] = data[greater];
+                data[greater--] = value;
+                value = data[k];
+                if (value < low) {
+                    data[k] = data[less];
+                    data[less++] = value;
+                }
+            }
+        }
+        data[left] = data[--less];
+        data[less] = low;
+        data[right] = data[++greater];
+        data[greater] = high;
+        sort(data, left, less - 1, depth - 1);
+        if (low < high) {
+            sort(data, less + 1, greater - 1, depth - 1);
+        }
+        sort(data, greater + 1, right, depth - 1);
+    }
+
+    // Sorts five evenly spaced samples and moves the second and fourth to the ends as pivots
+    private static void choosePivots(int[] data, int left, int right) {
+        int sixth = (right - left + 1) / 6;
+        int[] samples = {left + sixth, left + 2 * sixth, (left + right) >>> 1, right - 2 * sixth, right - sixth};
+        for (int i = 1; i < samples.length; i++) {
+            for (int j = i; j > 0 && data[samples[j - 1]] > data[samples[j]]; j--) {
+                swap(data, samples[j - 1], samples[j]);
+            }
+        }
+        swap(data, left, samples[1]);
+        swap(data, right, samples[3]);
+    }
+
+    static void insertionSort(int[] data, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int value = data[i];
+            int j = i - 1;
+            while (j >= left && data[j] > value) {
+                data[j + 1] = data[j];
+                j--;
+            }
+            data[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(int[] data, int left, int right) {
+        int length = right - left + 1;
+        for (int i = length / 2 - 1; i >= 0; i--) {
+            siftDown(data, left, i, length);
+        }
+        for (int end = length - 1; end > 0; end--) {
+            swap(data, left, left + end);
+            siftDown(data, left, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] data, int offset, int node, int length) {
+        int value = data[offset + node];
+        while (2 * node + 1 < length) {
+            int child = 2 * node + 1;
+            if (child + 1 < length && data[offset + child + 1] > data[offset + child]) {
+                child++;
+            }
+            if (data[offset + child] <= value) {
+                break;
+            }
+            data[offset + node] = data[offset + child];
+            node = child;
+        }
+        data[offset + node] = value;
+    }
+
+    private static void swap(int[] data, int i, int j) {
+        int swap = data[i];
+        data[i] = data[j];
+        data[j] = swap;
     }
 }
 
@@ -35,10 +234,19 @@ class SortingContext {
         this.strategy = strategy;
     }
 
+    // Context that picks a strategy for every call from the data itself
+    static SortingContext adaptive() {
+        return new SortingContext(new AdaptiveSort());
+    }
+
     void setStrategy(SortingStrategy strategy) {
         this.strategy = strategy;
     }
 
+    SortingStrategy getStrategy() {
+        return strategy;
+    }
+
     void executeSort(int[] data) {
         strategy.sort(data);
     }
@@ -50,9 +258,23 @@ public class Main {
         int[] data = {5, 2, 8, 9, 1};
 
         SortingContext context = new SortingContext(new BubbleSort());
-        context.executeSort(data); // Sorting using Bubble Sort
+        context.executeSort(data);
+        System.out.println("Sorted using Bubble Sort: " + Arrays.toString(data));
 
+        data = new int[]{5, 2, 8, 9, 1};
         context.setStrategy(new MergeSort());
-        context.executeSort(data); // Sorting using Merge Sort
+        context.executeSort(data);
+        System.out.println("Sorted using Merge Sort: " + Arrays.toString(data));
+
+        // Adaptive context: a large array of few distinct values is counted rather than compared
+        int[] grades = new int[100_000];
+        for (int i = 0; i < grades.length; i++) {
+            grades[i] = (i * 7919) % 5;
+        }
+        SortingContext adaptive = SortingContext.adaptive();
+        AdaptiveSort chooser = (AdaptiveSort) adaptive.getStrategy();
+        SortingStrategy chosen = chooser.chooseAndSort(grades);
+        System.out.println("Adaptive sort chose " + chosen.getClass().getSimpleName()
+                + ", first " + grades[0] + ", last " + grades[grades.length - 1]);
     }
 }
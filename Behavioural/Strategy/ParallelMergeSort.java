@@ -0,0 +1,138 @@
+package Behavioural.Strategy;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Fork-join merge sort. Halves are sorted in parallel, ping-ponging between the input and one scratch
+// array, and merges are split in parallel too: the middle of the longer run is placed by binary search
+// in the shorter one, leaving two independent merges. Leaves below the threshold use QuickSort;
+// ints carry nothing but their value, so the unstable leaves cannot be told apart from stable ones.
+class ParallelMergeSort implements SortingStrategy {
+    static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+    private final ForkJoinPool pool;
+
+    ParallelMergeSort() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    ParallelMergeSort(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void sort(int[] data) {
+        sort(data, data.length, data.length <= SEQUENTIAL_THRESHOLD ? null : new int[data.length]);
+    }
+
+    // Sorts data[0, length) with a caller-owned scratch array at least length long
+    void sort(int[] data, int length, int[] scratch) {
+        if (length <= SEQUENTIAL_THRESHOLD) {
+            new QuickSort().sort(data, 0, length);
+            return;
+        }
+        pool.invoke(new SortTask(data, scratch, 0, length, true));
+    }
+
+    // Sorts source[from, to); the result ends up in source when inSource is set, otherwise in scratch
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] source;
+        private final int[] scratch;
+        private final int from;
+        private final int to;
+        private final boolean inSource;
+
+        SortTask(int[] source, int[] scratch, int from, int to, boolean inSource) {
+            this.source = source;
+            this.scratch = scratch;
+            this.from = from;
+            this.to = to;
+            this.inSource = inSource;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                new QuickSort().sort(source, from, to);
+                if (!inSource) {
+                    System.arraycopy(source, from, scratch, from, to - from);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SortTask(source, scratch, from, middle, !inSource),
+                    new SortTask(source, scratch, middle, to, !inSource));
+            int[] halves = inSource ? scratch : source;
+            int[] target = inSource ? source : scratch;
+            new MergeTask(halves, from, middle, middle, to, target, from).compute();
+        }
+    }
+
+    // Merges source[leftFrom, leftTo) and source[rightFrom, rightTo) into target starting at out
+    private static final class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] source;
+        private final int leftFrom;
+        private final int leftTo;
+        private final int rightFrom;
+        private final int rightTo;
+        private final int[] target;
+        private final int out;
+
+        MergeTask(int[] source, int leftFrom, int leftTo, int rightFrom, int rightTo, int[] target, int out) {
+            this.source = source;
+            this.leftFrom = leftFrom;
+            this.leftTo = leftTo;
+            this.rightFrom = rightFrom;
+            this.rightTo = rightTo;
+            this.target = target;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLength = leftTo - leftFrom;
+            int rightLength = rightTo - rightFrom;
+            if (leftLength + rightLength <= SEQUENTIAL_THRESHOLD) {
+                merge();
+                return;
+            }
+            if (leftLength < rightLength) {
+                new MergeTask(source, rightFrom, rightTo, leftFrom, leftTo, target, out).compute();
+                return;
+            }
+            int pivot = (leftFrom + leftTo) >>> 1;
+            int split = lowerBound(source, rightFrom, rightTo, source[pivot]);
+            int pivotOut = out + (pivot - leftFrom) + (split - rightFrom);
+            target[pivotOut] = source[pivot];
+            invokeAll(new MergeTask(source, leftFrom, pivot, rightFrom, split, target, out),
+                    new MergeTask(source, pivot + 1, leftTo, split, rightTo, target, pivotOut + 1));
+        }
+
+        private void merge() {
+            int left = leftFrom;
+            int right = rightFrom;
+            int index = out;
+            while (left < leftTo && right < rightTo) {
+                target[index++] = source[right] < source[left] ? source[right++] : source[left++];
+            }
+            System.arraycopy(source, left, target, index, leftTo - left);
+            System.arraycopy(source, right, target, index + leftTo - left, rightTo - right);
+        }
+
+        // First index in [from, to) whose value is not less than key
+        private static int lowerBound(int[] data, int from, int to, int key) {
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+                if (data[middle] < key) {
+                    from = middle + 1;
+                } else {
+                    to = middle;
+                }
+            }
+            return from;
+        }
+    }
+}
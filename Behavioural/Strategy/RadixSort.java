@@ -0,0 +1,94 @@
+package Behavioural.Strategy;
+
+import java.util.Arrays;
+
+// LSD radix sort on bytes. Keys are taken relative to the minimum, so a narrow key range needs fewer
+// passes, and a pass whose byte is the same for every key is skipped. All histograms come from one
+// scan of the input; the scatter buffer is a per-thread scratch array.
+class RadixSort implements SortingStrategy {
+    private static final ScratchArray BUFFER = new ScratchArray();
+
+    public void sort(int[] data) {
+        int length = data.length;
+        if (length < 2) {
+            return;
+        }
+        int min = data[0];
+        int max = data[0];
+        for (int value : data) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        long range = (long) max - min;
+        int passes = (64 - Long.numberOfLeadingZeros(range) + 7) / 8;
+        if (passes == 0) {
+            return;
+        }
+        int[][] counts = new int[passes][256];
+        for (int value : data) {
+            int key = value - min;
+            for (int pass = 0; pass < passes; pass++) {
+                counts[pass][(key >>> (8 * pass)) & 0xFF]++;
+            }
+        }
+        int[] source = data;
+        int[] target = BUFFER.get(length);
+        for (int pass = 0; pass < passes; pass++) {
+            int[] count = counts[pass];
+            int shift = 8 * pass;
+            if (count[((source[0] - min) >>> shift) & 0xFF] == length) {
+                continue;
+            }
+            int offset = 0;
+            for (int digit = 0; digit < 256; digit++) {
+                int digitCount = count[digit];
+                count[digit] = offset;
+                offset += digitCount;
+            }
+            for (int i = 0; i < length; i++) {
+                int value = source[i];
+                target[count[((value - min) >>> shift) & 0xFF]++] = value;
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != data) {
+            System.arraycopy(source, 0, data, 0, length);
+        }
+    }
+}
+
+// Counting sort for keys in a small range: one pass to count, one to write the keys back out.
+// Used when there are not many more distinct key values than elements.
+class CountingSort implements SortingStrategy {
+    static final int MAX_RANGE = 1 << 20;
+
+    private static final ScratchArray COUNTS = new ScratchArray(MAX_RANGE);
+
+    public void sort(int[] data) {
+        if (data.length < 2) {
+            return;
+        }
+        int min = data[0];
+        int max = data[0];
+        for (int value : data) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        long range = (long) max - min + 1;
+        if (range > MAX_RANGE) {
+            throw new IllegalArgumentException("Key range " + range + " is larger than " + MAX_RANGE);
+        }
+        int[] counts = COUNTS.get((int) range);
+        Arrays.fill(counts, 0, (int) range, 0);
+        for (int value : data) {
+            counts[value - min]++;
+        }
+        int out = 0;
+        for (int key = 0; key < range; key++) {
+            Arrays.fill(data, out, out + counts[key], key + min);
+            out += counts[key];
+        }
+    }
+}
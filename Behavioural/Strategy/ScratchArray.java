@@ -0,0 +1,32 @@
+package Behavioural.Strategy;
+
+// Per-thread scratch int array, so a strategy instance holds no per-call state and can be shared by
+// threads. Arrays up to maxCached ints stay with their thread for reuse; a larger request gets a fresh
+// array that dies with the call, so no thread keeps a buffer as big as the largest array it sorted.
+// Contents are left over from earlier calls.
+final class ScratchArray {
+    static final int DEFAULT_MAX_CACHED = 1 << 20;
+
+    private final int maxCached;
+    private final ThreadLocal<int[]> cached = ThreadLocal.withInitial(() -> new int[0]);
+
+    ScratchArray() {
+        this(DEFAULT_MAX_CACHED);
+    }
+
+    ScratchArray(int maxCached) {
+        this.maxCached = maxCached;
+    }
+
+    int[] get(int length) {
+        if (length > maxCached) {
+            return new int[length];
+        }
+        int[] array = cached.get();
+        if (array.length < length) {
+            array = new int[length];
+            cached.set(array);
+        }
+        return array;
+    }
+}
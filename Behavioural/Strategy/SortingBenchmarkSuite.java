@@ -0,0 +1,355 @@
+package Behavioural.Strategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.Supplier;
+
+// Benchmark of SortingContext.executeSort for every strategy, input distribution, size and thread count.
+// Works like a JMH average-time benchmark: warmup iterations, then timed iterations; each of the
+// threads sorts its own copies of the input with its own strategy. As in JMH's batch mode, one
+// measurement times a whole batch of pre-copied inputs, so small sizes measure sorting, not nanoTime.
+// Allocation is read from the per-thread allocation counters of every live thread, fork-join workers
+// included, so it matches JMH's gc.alloc.rate.norm. Results are printed as a table and written as JSON.
+// Options: sizes=10,1000 threads=1,2 iterations=5 warmup=2 time=200 (ms per iteration)
+//          strategies=QuickSort,RadixSort json=sorting-benchmark.json
+// 100M elements needs about 2 GB of heap per thread.
+public class SortingBenchmarkSuite {
+    // Quadratic sorts are skipped above this size
+    static final int QUADRATIC_LIMIT = 10_000;
+    // Elements sorted per measurement, in batches of at most MAX_BATCH inputs
+    static final int BATCH_ELEMENTS = 1 << 16;
+    static final int MAX_BATCH = 1024;
+    static final List<String> OPTIONS =
+            List.of("sizes", "threads", "iterations", "warmup", "time", "strategies", "json");
+    static final String USAGE = "Usage: SortingBenchmarkSuite [sizes=10,1000] [threads=1,2] [iterations=5] [warmup=2]"
+            + " [time=200] [strategies=QuickSort,RadixSort] [json=sorting-benchmark.json]";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    enum Distribution {
+        RANDOM, SORTED, REVERSE, FEW_UNIQUE, ORGAN_PIPE, ZIPFIAN;
+
+        int[] generate(int size, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] data = new int[size];
+            for (int i = 0; i < size; i++) {
+                switch (this) {
+                    case RANDOM:
+                        data[i] = random.nextInt();
+                        break;
+                    case SORTED:
+                        data[i] = i;
+                        break;
+                    case REVERSE:
+                        data[i] = size - i;
+                        break;
+                    case FEW_UNIQUE:
+                        data[i] = random.nextInt(16) * 1000;
+                        break;
+                    case ORGAN_PIPE:
+                        data[i] = Math.min(i, size - 1 - i);
+                        break;
+                    default:
+                        // Rank k drawn with probability ~ 1/k, scattered over the int range
+                        data[i] = (int) ((long) Math.exp(random.nextDouble() * Math.log(1 << 20)) * 2654435761L);
+                }
+            }
+            return data;
+        }
+    }
+
+    static final class Result {
+        final String strategy;
+        final Distribution distribution;
+        final int size;
+        final int threads;
+        final double[] nanosPerOp;
+        final long operations;
+        final long allocatedBytes;
+        final double seconds;
+        final long gcCount;
+        final long gcMillis;
+
+        Result(String strategy, Distribution distribution, int size, int threads, double[] nanosPerOp,
+               long operations, long allocatedBytes, double seconds, long gcCount, long gcMillis) {
+            this.strategy = strategy;
+            this.distribution = distribution;
+            this.size = size;
+            this.threads = threads;
+            this.nanosPerOp = nanosPerOp;
+            this.operations = operations;
+            this.allocatedBytes = allocatedBytes;
+            this.seconds = seconds;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        double mean() {
+            return Arrays.stream(nanosPerOp).average().orElse(0);
+        }
+
+        double stdev() {
+            double mean = mean();
+            double sum = 0;
+            for (double value : nanosPerOp) {
+                sum += (value - mean) * (value - mean);
+            }
+            return nanosPerOp.length > 1 ? Math.sqrt(sum / (nanosPerOp.length - 1)) : 0;
+        }
+
+        double bytesPerOp() {
+            return (double) allocatedBytes / operations;
+        }
+
+        double allocationMBPerSecond() {
+            return allocatedBytes / seconds / (1 << 20);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0 || !OPTIONS.contains(arg.substring(0, equals))) {
+                System.err.println("Unknown option " + arg);
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        int[] sizes = ints(options.getOrDefault("sizes", "10,1000,100000,10000000"));
+        int[] threadCounts = ints(options.getOrDefault("threads",
+                "1," + Math.max(2, Runtime.getRuntime().availableProcessors())));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "5"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "2"));
+        long iterationNanos = Long.parseLong(options.getOrDefault("time", "200")) * 1_000_000;
+        Path json = Path.of(options.getOrDefault("json", "sorting-benchmark.json"));
+
+        Map<String, Supplier<SortingStrategy>> strategies = new LinkedHashMap<>();
+        strategies.put("BubbleSort", BubbleSort::new);
+        strategies.put("MergeSort", MergeSort::new);
+        strategies.put("QuickSort", QuickSort::new);
+        strategies.put("RadixSort", RadixSort::new);
+        strategies.put("CountingSort", CountingSort::new);
+        strategies.put("ParallelMergeSort", ParallelMergeSort::new);
+        strategies.put("AdaptiveSort", AdaptiveSort::new);
+        if (options.containsKey("strategies")) {
+            strategies.keySet().retainAll(Arrays.asList(options.get("strategies").split(",")));
+        }
+
+        List<Result> results = new ArrayList<>();
+        System.out.printf("%-18s %-11s %10s %7s %16s %12s %14s %10s%n", "strategy", "input", "size", "threads",
+                "ns/op", "stdev", "alloc B/op", "alloc MB/s");
+        for (Map.Entry<String, Supplier<SortingStrategy>> strategy : strategies.entrySet()) {
+            for (Distribution distribution : Distribution.values()) {
+                for (int size : sizes) {
+                    int[] input = distribution.generate(size, size);
+                    if (!applies(strategy.getKey(), input)) {
+                        continue;
+                    }
+                    for (int threads : threadCounts) {
+                        Result result = run(strategy.getKey(), strategy.getValue(), distribution, input, threads,
+                                warmup, iterations, iterationNanos);
+                        results.add(result);
+                        System.out.printf("%-18s %-11s %10d %7d %16.1f %12.1f %14.1f %10.1f%n", result.strategy,
+                                distribution, size, threads, result.mean(), result.stdev(), result.bytesPerOp(),
+                                result.allocationMBPerSecond());
+                    }
+                }
+            }
+        }
+        Files.write(json, toJson(results).getBytes(StandardCharsets.UTF_8));
+        System.out.println("Results written to " + json.toAbsolutePath());
+    }
+
+    private static boolean applies(String strategy, int[] input) {
+        if (strategy.equals("BubbleSort")) {
+            return input.length <= QUADRATIC_LIMIT;
+        }
+        if (strategy.equals("CountingSort") && input.length > 0) {
+            int min = Arrays.stream(input).min().getAsInt();
+            int max = Arrays.stream(input).max().getAsInt();
+            return (long) max - min < CountingSort.MAX_RANGE;
+        }
+        return true;
+    }
+
+    private static Result run(String name, Supplier<SortingStrategy> strategies, Distribution distribution,
+                              int[] input, int threads, int warmup, int iterations, long iterationNanos)
+            throws InterruptedException {
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+        CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+        double[][] nanosPerOp = new double[threads][iterations];
+        long[] operations = new long[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            workers[t] = new Thread(() -> {
+                SortingContext context = new SortingContext(strategies.get());
+                int[][] batch = new int[batchSize(input.length)][input.length];
+                int[] data = batch[0];
+                System.arraycopy(input, 0, data, 0, input.length);
+                context.executeSort(data);
+                if (!Arrays.equals(data, expected)) {
+                    throw new IllegalStateException(name + " did not sort " + distribution);
+                }
+                for (int iteration = 0; iteration < warmup; iteration++) {
+                    iterate(context, input, batch, iterationNanos);
+                }
+                await(barrier);
+                for (int iteration = 0; iteration < iterations; iteration++) {
+                    long[] timed = iterate(context, input, batch, iterationNanos);
+                    nanosPerOp[worker][iteration] = (double) timed[0] / timed[1];
+                    operations[worker] += timed[1];
+                }
+                await(barrier);
+                // Stay alive until the allocation counters have been read
+                await(barrier);
+            }, "sort-benchmark-" + t);
+            workers[t].start();
+        }
+        await(barrier);
+        Map<Long, Long> allocatedBefore = allocatedByThread();
+        long[] gcBefore = gc();
+        long start = System.nanoTime();
+        await(barrier);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long[] gcAfter = gc();
+        Map<Long, Long> allocatedAfter = allocatedByThread();
+        await(barrier);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long allocated = 0;
+        for (Map.Entry<Long, Long> thread : allocatedAfter.entrySet()) {
+            allocated += thread.getValue() - allocatedBefore.getOrDefault(thread.getKey(), 0L);
+        }
+        double[] averaged = new double[iterations];
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                averaged[iteration] += nanosPerOp[t][iteration] / threads;
+            }
+            total += operations[t];
+        }
+        return new Result(name, distribution, input.length, threads, averaged, total, allocated, seconds,
+                gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+    }
+
+    // Inputs sorted per measurement: enough that two nanoTime calls are noise next to the sorting
+    static int batchSize(int size) {
+        return Math.max(1, Math.min(MAX_BATCH, BATCH_ELEMENTS / Math.max(1, size)));
+    }
+
+    // Sorts fresh copies of the input for one iteration, timing a batch of them per measurement;
+    // returns the nanoseconds spent sorting and the number of sorts. Copying the input is not timed.
+    private static long[] iterate(SortingContext context, int[] input, int[][] batch, long iterationNanos) {
+        long sorting = 0;
+        long operations = 0;
+        long end = System.nanoTime() + iterationNanos;
+        do {
+            for (int[] data : batch) {
+                System.arraycopy(input, 0, data, 0, input.length);
+            }
+            long start = System.nanoTime();
+            for (int[] data : batch) {
+                context.executeSort(data);
+            }
+            long stop = System.nanoTime();
+            sorting += stop - start;
+            operations += batch.length;
+            if (stop >= end) {
+                break;
+            }
+        } while (true);
+        return new long[]{sorting, operations};
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<Long, Long> allocatedByThread() {
+        long[] ids = THREADS.getAllThreadIds();
+        long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+                allocated.put(ids[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+
+    private static long[] gc() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[]{count, millis};
+    }
+
+    private static int[] ints(String list) {
+        return Arrays.stream(list.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    // One object per result, in the shape of JMH's JSON: primaryMetric in ns/op, allocation and GC
+    // counts as secondary metrics
+    static String toJson(List<Result> results) {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            json.append("  {\n")
+                    .append("    \"benchmark\": \"SortingContext.executeSort\",\n")
+                    .append("    \"mode\": \"avgt\",\n")
+                    .append("    \"threads\": ").append(result.threads).append(",\n")
+                    .append("    \"params\": {\"strategy\": \"").append(result.strategy)
+                    .append("\", \"distribution\": \"").append(result.distribution)
+                    .append("\", \"size\": ").append(result.size).append("},\n")
+                    .append("    \"primaryMetric\": {\"score\": ").append(number(result.mean()))
+                    .append(", \"scoreStdev\": ").append(number(result.stdev()))
+                    .append(", \"scoreUnit\": \"ns/op\", \"rawData\": [");
+            for (int iteration = 0; iteration < result.nanosPerOp.length; iteration++) {
+                json.append(iteration == 0 ? "" : ", ").append(number(result.nanosPerOp[iteration]));
+            }
+            json.append("]},\n")
+                    .append("    \"secondaryMetrics\": {")
+                    .append("\"gc.alloc.rate.norm\": {\"score\": ").append(number(result.bytesPerOp()))
+                    .append(", \"scoreUnit\": \"B/op\"}, ")
+                    .append("\"gc.alloc.rate\": {\"score\": ").append(number(result.allocationMBPerSecond()))
+                    .append(", \"scoreUnit\": \"MB/sec\"}, ")
+                    .append("\"gc.count\": {\"score\": ").append(result.gcCount)
+                    .append(", \"scoreUnit\": \"counts\"}, ")
+                    .append("\"gc.time\": {\"score\": ").append(result.gcMillis)
+                    .append(", \"scoreUnit\": \"ms\"}}\n")
+                    .append(i == results.size() - 1 ? "  }\n" : "  },\n");
+        }
+        return json.append("]\n").toString();
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,152 @@
+package Behavioural.Template;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+
+// Documents per second and bytes allocated per document: println on a System.out-style PrintStream
+// against the pooled channel sink. Both write to a sink that discards the bytes. The second part
+// streams one large report to show that allocation does not grow with the document, and the third
+// renders a report sequentially and with parallel sections, checking the output is the same and
+// that a failing section reaches the caller as its IOException.
+public class DocumentGeneratorBenchmark {
+    private static final int DOCUMENTS = 2_000_000;
+    private static final long REPORT_ROWS = 20_000_000;
+    private static final long PARALLEL_REPORT_ROWS = 5_000_000;
+
+    public static void main(String[] args) throws IOException {
+        PrintStream printStream = new PrintStream(OutputStream.nullOutputStream(), true);
+        WritableByteChannel channel = new DiscardingChannel();
+        DocumentGenerator html = new HtmlDocumentGenerator();
+        for (int round = 0; round < 3; round++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < DOCUMENTS; i++) {
+                printStream.println("HTML Header");
+                printStream.println("HTML Content");
+                printStream.println("HTML Footer");
+            }
+            report("println", start, allocatedBytes() - allocated);
+
+            allocated = allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < DOCUMENTS; i++) {
+                html.generateDocument(channel);
+            }
+            report("channel sink", start, allocatedBytes() - allocated);
+        }
+
+        DiscardingChannel discarded = new DiscardingChannel();
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        new ReportDocumentGenerator(REPORT_ROWS).generateDocument(discarded);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("report of %d MB: %.0f MB/s, %d bytes allocated%n", discarded.bytes >> 20,
+                discarded.bytes / seconds / (1 << 20), allocatedBytes() - allocated);
+
+        ReportDocumentGenerator report = new ReportDocumentGenerator(PARALLEL_REPORT_ROWS);
+        ExecutorService virtualThreads = virtualThreads();
+        System.out.printf("%d cores, %d-row report:%n", Runtime.getRuntime().availableProcessors(), PARALLEL_REPORT_ROWS);
+        for (int round = 0; round < 3; round++) {
+            long expected = timeReport("sequential", report, null);
+            check(expected, timeReport("fork-join", report, ForkJoinPool.commonPool()));
+            check(expected, timeReport("virtual threads", report, virtualThreads));
+        }
+        checkFailure(ForkJoinPool.commonPool());
+        checkFailure(virtualThreads);
+        virtualThreads.shutdown();
+    }
+
+    // Renders the report and returns the CRC of its bytes
+    private static long timeReport(String name, DocumentGenerator report, ExecutorService executor) throws IOException {
+        DiscardingChannel channel = new DiscardingChannel();
+        channel.checksum = new CRC32();
+        long start = System.nanoTime();
+        if (executor == null) {
+            report.generateDocument(channel);
+        } else {
+            report.generateDocument(channel, executor);
+        }
+        System.out.printf("  %-16s %8.1f ms%n", name, (System.nanoTime() - start) / 1e6);
+        return channel.checksum.getValue();
+    }
+
+    private static void check(long expected, long actual) {
+        if (expected != actual) {
+            throw new IllegalStateException("Parallel rendering changed the document");
+        }
+    }
+
+    // A section that throws must reach the caller as its own IOException, whatever the executor
+    private static void checkFailure(ExecutorService executor) {
+        DocumentGenerator failing = new ReportDocumentGenerator(PARALLEL_REPORT_ROWS) {
+            @Override
+            protected List<Section> contentSections() {
+                List<Section> sections = new ArrayList<>(super.contentSections());
+                sections.add(sections.size() / 2, sink -> {
+                    throw new IOException("Section failed");
+                });
+                return sections;
+            }
+        };
+        try {
+            failing.generateDocument(new DiscardingChannel(), executor);
+        } catch (IOException e) {
+            return;
+        }
+        throw new IllegalStateException("A failing section did not surface as an IOException");
+    }
+
+    private static ExecutorService virtualThreads() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    private static void report(String name, long start, long allocated) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-13s %12.0f documents/s %8.1f bytes/document%n", name, DOCUMENTS / seconds,
+                (double) allocated / DOCUMENTS);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    // Accepts and drops every byte, like writing to /dev/null, optionally checksumming them
+    private static final class DiscardingChannel implements WritableByteChannel {
+        long bytes;
+        CRC32 checksum;
+
+        @Override
+        public int write(ByteBuffer source) {
+            int count = source.remaining();
+            if (checksum != null) {
+                checksum.update(source);
+            }
+            source.position(source.limit());
+            bytes += count;
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package Behavioural.Template;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Fixed-size direct buffers shared by all documents. A buffer goes back to the pool when its
+// document is done; at most maxPooled idle buffers are kept, extra ones are left to the GC.
+class BufferPool {
+    static final int DEFAULT_BUFFER_BYTES = 64 << 10;
+    private static final BufferPool SHARED = new BufferPool(DEFAULT_BUFFER_BYTES, 256);
+
+    private final int bufferBytes;
+    private final ArrayBlockingQueue<ByteBuffer> idle;
+
+    BufferPool(int bufferBytes, int maxPooled) {
+        if (bufferBytes < 32) {
+            throw new IllegalArgumentException("Buffers must hold at least 32 bytes");
+        }
+        this.bufferBytes = bufferBytes;
+        this.idle = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    static BufferPool shared() {
+        return SHARED;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = idle.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    void release(ByteBuffer buffer) {
+        buffer.clear();
+        idle.offer(buffer);
+    }
+
+    int bufferBytes() {
+        return bufferBytes;
+    }
+}
+
+// Static text encoded to UTF-8 once, kept in a read-only direct buffer that any number of sinks
+// can copy from or hand straight to the channel
+final class Fragment {
+    private final ByteBuffer bytes;
+
+    private Fragment(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    static Fragment of(String text) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer bytes = ByteBuffer.allocateDirect(encoded.length).put(encoded);
+        return new Fragment(bytes.flip().asReadOnlyBuffer());
+    }
+
+    int size() {
+        return bytes.capacity();
+    }
+
+    ByteBuffer bytes() {
+        return bytes;
+    }
+}
+
+// Where a document's hooks write. Text is encoded to UTF-8 straight into one pooled buffer, which is
+// written to the channel each time it fills, so a document holds one buffer however large it gets.
+// Fragments are copied into the buffer without re-encoding, or written to the channel directly
+// alongside the buffer when they do not fit. A sink without a channel keeps its filled buffers
+// instead, so a section can be rendered on its own and appended to the document later.
+class DocumentSink implements Closeable {
+    private final WritableByteChannel channel;
+    private final BufferPool pool;
+    private final List<ByteBuffer> filled;
+    private ByteBuffer buffer;
+    private long flushed;
+
+    DocumentSink(WritableByteChannel channel, BufferPool pool) {
+        this.channel = channel;
+        this.pool = pool;
+        this.filled = null;
+        this.buffer = pool.acquire();
+    }
+
+    // Sink for a section: everything written stays in pooled buffers until appended
+    DocumentSink(BufferPool pool) {
+        this.channel = null;
+        this.pool = pool;
+        this.filled = new ArrayList<>();
+        this.buffer = pool.acquire();
+    }
+
+    DocumentSink write(Fragment fragment) throws IOException {
+        ByteBuffer bytes = fragment.bytes();
+        int size = bytes.capacity();
+        int position = buffer.position();
+        if (size <= buffer.remaining()) {
+            buffer.put(position, bytes, 0, size).position(position + size);
+            return this;
+        }
+        if (channel == null) {
+            flushBuffer();
+            filled.add(bytes.duplicate());
+            flushed += size;
+            return this;
+        }
+        flushed += position + size;
+        writeFully(buffer.flip(), bytes.duplicate());
+        buffer.clear();
+        return this;
+    }
+
+    // Moves everything written to a section sink to the end of this one, in order, leaving the section
+    // closed. Filled buffers change hands rather than being copied.
+    void append(DocumentSink section) throws IOException {
+        long size = section.size();
+        section.flushBuffer();
+        section.pool.release(section.buffer);
+        section.buffer = null;
+        flushBuffer();
+        if (channel == null) {
+            filled.addAll(section.filled);
+        } else {
+            writeFully(section.filled.toArray(new ByteBuffer[0]));
+            section.releaseFilled();
+        }
+        section.filled.clear();
+        flushed += size;
+    }
+
+    DocumentSink write(CharSequence text) throws IOException {
+        ByteBuffer buffer = this.buffer;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (buffer.remaining() < 4) {
+                flushBuffer();
+                buffer = this.buffer;
+            }
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced the way String.getBytes does
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    // Decimal digits written in place, without going through a String
+    DocumentSink write(long value) throws IOException {
+        if (buffer.remaining() < 20) {
+            flushBuffer();
+        }
+        if (value == Long.MIN_VALUE) {
+            return write("-9223372036854775808");
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = buffer.position() + digits;
+        for (int index = end - 1; index >= buffer.position(); index--) {
+            buffer.put(index, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+        return this;
+    }
+
+    // Bytes handed to the channel plus bytes still buffered
+    long size() {
+        return flushed + buffer.position();
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+    }
+
+    // Flushes and returns the buffer to the pool; the channel stays open. A section sink that was
+    // never appended discards what it holds.
+    @Override
+    public void close() throws IOException {
+        if (filled != null) {
+            releaseFilled();
+            filled.clear();
+        }
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (channel != null) {
+                flushBuffer();
+            }
+        } finally {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        flushed += buffer.position();
+        if (channel == null) {
+            filled.add(buffer.flip());
+            buffer = pool.acquire();
+            return;
+        }
+        writeFully(buffer.flip());
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer... parts) throws IOException {
+        if (parts.length == 0) {
+            return;
+        }
+        if (channel instanceof GatheringByteChannel) {
+            GatheringByteChannel gathering = (GatheringByteChannel) channel;
+            while (parts[parts.length - 1].hasRemaining()) {
+                gathering.write(parts);
+            }
+            return;
+        }
+        for (ByteBuffer part : parts) {
+            while (part.hasRemaining()) {
+                channel.write(part);
+            }
+        }
+    }
+
+    // Returns pooled buffers; fragment views are read-only and not the pool's
+    private void releaseFilled() {
+        for (ByteBuffer part : filled) {
+            if (!part.isReadOnly()) {
+                pool.release(part);
+            }
+        }
+    }
+}
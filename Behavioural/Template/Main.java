@@ -1,61 +1,268 @@
 package Behavioural.Template;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Part of a document that renders without depending on the parts before it
+interface Section {
+    void render(DocumentSink sink) throws IOException;
+}
+
 // Abstract class with template method
 abstract class DocumentGenerator {
-    // Template method that defines the common algorithm structure
-    public void generateDocument() {
-        createHeader();
-        createContent();
-        createFooter();
+    // Sections rendered ahead of the one being written out
+    static final int RENDER_AHEAD = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+
+    private final BufferPool pool;
+
+    DocumentGenerator() {
+        this(BufferPool.shared());
+    }
+
+    DocumentGenerator(BufferPool pool) {
+        this.pool = pool;
+    }
+
+    // Template method that defines the common algorithm structure. The hooks write into one
+    // pooled buffer that is flushed to the channel as it fills, so memory per document is bounded.
+    public void generateDocument(WritableByteChannel channel) throws IOException {
+        try (DocumentSink sink = new DocumentSink(channel, pool)) {
+            createHeader(sink);
+            createContent(sink);
+            createFooter(sink);
+        }
+    }
+
+    // Parallel variant of the template method. Header, content sections and footer render concurrently
+    // on the executor, each into its own pooled buffers, and are appended to the channel in document
+    // order, so the bytes are the same as from the sequential method. At most RENDER_AHEAD sections are
+    // rendered ahead of the one being written, which bounds the memory held. If the document fails,
+    // sections not yet started are skipped and those already rendering are waited for and released.
+    public void generateDocument(WritableByteChannel channel, ExecutorService executor) throws IOException {
+        List<Section> sections = new ArrayList<>();
+        sections.add(this::createHeader);
+        sections.addAll(contentSections());
+        sections.add(this::createFooter);
+        Iterator<Section> pending = sections.iterator();
+        ArrayDeque<FutureTask<DocumentSink>> rendering = new ArrayDeque<>();
+        AtomicBoolean failed = new AtomicBoolean();
+        try (DocumentSink sink = new DocumentSink(channel, pool)) {
+            while (pending.hasNext() || !rendering.isEmpty()) {
+                while (pending.hasNext() && rendering.size() < RENDER_AHEAD) {
+                    // A FutureTask reports the section's own exception; ForkJoinPool.submit would wrap an
+                    // IOException in a RuntimeException
+                    Section section = pending.next();
+                    FutureTask<DocumentSink> task = new FutureTask<>(() -> render(section, failed));
+                    executor.execute(task);
+                    rendering.add(task);
+                }
+                try (DocumentSink rendered = join(rendering.poll())) {
+                    sink.append(rendered);
+                }
+            }
+        } finally {
+            // Not cancelled: cancelling a running task would drop its sink with the buffers in it
+            failed.set(true);
+            for (FutureTask<DocumentSink> abandoned : rendering) {
+                discard(abandoned);
+            }
+        }
+    }
+
+    // Independent parts of the content, in document order. Together they must write exactly what
+    // createContent writes; by default the content is one section.
+    protected List<Section> contentSections() {
+        return List.of(this::createContent);
+    }
+
+    // Null when the document failed before the section started
+    private DocumentSink render(Section section, AtomicBoolean failed) throws IOException {
+        if (failed.get()) {
+            return null;
+        }
+        DocumentSink sink = new DocumentSink(pool);
+        try {
+            section.render(sink);
+            return sink;
+        } catch (IOException | RuntimeException | Error e) {
+            sink.close();
+            throw e;
+        }
+    }
+
+    private static DocumentSink join(Future<DocumentSink> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // Waits for a section that will not be written and returns its buffers
+    private static void discard(Future<DocumentSink> future) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                DocumentSink sink = future.get();
+                if (sink != null) {
+                    sink.close();
+                }
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (Exception e) {
+                // The document has already failed; this section's outcome does not matter
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     // Abstract methods to be implemented by subclasses
-    protected abstract void createHeader();
+    protected abstract void createHeader(DocumentSink sink) throws IOException;
 
-    protected abstract void createContent();
+    protected abstract void createContent(DocumentSink sink) throws IOException;
 
-    protected abstract void createFooter();
+    protected abstract void createFooter(DocumentSink sink) throws IOException;
 }
 
 // Concrete subclasses with specific implementations
 class PdfDocumentGenerator extends DocumentGenerator {
-    protected void createHeader() {
-        System.out.println("PDF Header");
+    private static final Fragment HEADER = Fragment.of("PDF Header\n");
+    private static final Fragment FOOTER = Fragment.of("PDF Footer\n");
+
+    protected void createHeader(DocumentSink sink) throws IOException {
+        sink.write(HEADER);
     }
 
-    protected void createContent() {
-        System.out.println("PDF Content");
+    protected void createContent(DocumentSink sink) throws IOException {
+        sink.write("PDF Content\n");
     }
 
-    protected void createFooter() {
-        System.out.println("PDF Footer");
+    protected void createFooter(DocumentSink sink) throws IOException {
+        sink.write(FOOTER);
     }
 }
 
 class HtmlDocumentGenerator extends DocumentGenerator {
-    protected void createHeader() {
-        System.out.println("HTML Header");
+    private static final Fragment HEADER = Fragment.of("HTML Header\n");
+    private static final Fragment FOOTER = Fragment.of("HTML Footer\n");
+
+    protected void createHeader(DocumentSink sink) throws IOException {
+        sink.write(HEADER);
     }
 
-    protected void createContent() {
-        System.out.println("HTML Content");
+    protected void createContent(DocumentSink sink) throws IOException {
+        sink.write("HTML Content\n");
     }
 
-    protected void createFooter() {
-        System.out.println("HTML Footer");
+    protected void createFooter(DocumentSink sink) throws IOException {
+        sink.write(FOOTER);
+    }
+}
+
+// Report whose content is generated row by row; it can be far larger than the heap. Each block of
+// rows is its own content section, so large reports render in parallel.
+class ReportDocumentGenerator extends DocumentGenerator {
+    static final long ROWS_PER_SECTION = 1 << 16;
+
+    private static final Fragment HEADER = Fragment.of("<report>\n");
+    private static final Fragment ROW_START = Fragment.of("  <row id=\"");
+    private static final Fragment ROW_MIDDLE = Fragment.of("\">Item ");
+    private static final Fragment ROW_END = Fragment.of("</row>\n");
+    private static final Fragment FOOTER = Fragment.of("</report>\n");
+
+    private final long rows;
+
+    ReportDocumentGenerator(long rows) {
+        this.rows = rows;
+    }
+
+    protected void createHeader(DocumentSink sink) throws IOException {
+        sink.write(HEADER);
+    }
+
+    protected void createContent(DocumentSink sink) throws IOException {
+        writeRows(sink, 0, rows);
+    }
+
+    @Override
+    protected List<Section> contentSections() {
+        List<Section> sections = new ArrayList<>();
+        for (long from = 0; from < rows; from += ROWS_PER_SECTION) {
+            long start = from;
+            long end = Math.min(rows, from + ROWS_PER_SECTION);
+            sections.add(sink -> writeRows(sink, start, end));
+        }
+        return sections;
+    }
+
+    private static void writeRows(DocumentSink sink, long from, long to) throws IOException {
+        for (long row = from; row < to; row++) {
+            sink.write(ROW_START).write(row).write(ROW_MIDDLE).write(row * 31 % 1000).write(ROW_END);
+        }
+    }
+
+    protected void createFooter(DocumentSink sink) throws IOException {
+        sink.write(FOOTER);
     }
 }
 
 // Client code
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         DocumentGenerator pdfGenerator = new PdfDocumentGenerator();
         DocumentGenerator htmlGenerator = new HtmlDocumentGenerator();
+        WritableByteChannel out = Channels.newChannel(System.out);
 
         System.out.println("Generating PDF document:");
-        pdfGenerator.generateDocument();
+        pdfGenerator.generateDocument(out);
 
         System.out.println("\nGenerating HTML document:");
-        htmlGenerator.generateDocument();
+        htmlGenerator.generateDocument(out);
+
+        // Any channel will do, so output can be captured as well as printed
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        new ReportDocumentGenerator(3).generateDocument(Channels.newChannel(captured));
+        System.out.println("\nCaptured report:");
+        System.out.print(captured.toString(StandardCharsets.UTF_8));
+
+        // Sections of a large report render concurrently and are joined in order
+        ReportDocumentGenerator report = new ReportDocumentGenerator(200_000);
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        report.generateDocument(Channels.newChannel(sequential));
+        report.generateDocument(Channels.newChannel(parallel), ForkJoinPool.commonPool());
+        System.out.println("\nParallel report matches sequential: "
+                + Arrays.equals(sequential.toByteArray(), parallel.toByteArray()) + " (" + parallel.size() + " bytes)");
     }
 }